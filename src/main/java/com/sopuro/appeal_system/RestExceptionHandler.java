@@ -2,6 +2,7 @@ package com.sopuro.appeal_system;
 
 import com.sopuro.appeal_system.dtos.GenericErrorResponseDto;
 import com.sopuro.appeal_system.exceptions.appeal.CaseNotFoundException;
+import com.sopuro.appeal_system.exceptions.appeal.InvalidTranscriptCursorException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,4 +18,11 @@ public class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(new GenericErrorResponseDto(404, request.getRequestURI(), ex.getMessage(), Instant.now()));
     }
+
+    @ExceptionHandler(InvalidTranscriptCursorException.class)
+    public ResponseEntity<GenericErrorResponseDto> handleError(
+            InvalidTranscriptCursorException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new GenericErrorResponseDto(400, request.getRequestURI(), ex.getMessage(), Instant.now()));
+    }
 }
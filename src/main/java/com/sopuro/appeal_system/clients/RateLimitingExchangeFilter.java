@@ -0,0 +1,156 @@
+package com.sopuro.appeal_system.clients;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client-side rate limiting for an upstream API, with one token bucket per API key or token. Requests over the
+ * limit are delayed rather than failed. The bucket is paused when the upstream reports an exhausted quota
+ * ({@code x-ratelimit-remaining: 0}) or answers 429, in which case the request is retried after
+ * {@code Retry-After}.
+ */
+@Slf4j
+public class RateLimitingExchangeFilter implements ExchangeFilterFunction {
+    private static final String ANONYMOUS_KEY = "";
+    private static final String REMAINING_HEADER = "x-ratelimit-remaining";
+    private static final String RESET_HEADER = "x-ratelimit-reset";
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final String upstream;
+    private final String keyHeader;
+    private final double requestsPerSecond;
+    private final int burst;
+    private final int maxRetries;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitingExchangeFilter(
+            String upstream,
+            String keyHeader,
+            int requestsPerMinute,
+            int burst,
+            int maxRetries,
+            MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.keyHeader = keyHeader;
+        this.requestsPerSecond = requestsPerMinute / 60.0;
+        this.burst = burst;
+        this.maxRetries = maxRetries;
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("http_client.rate_limit.wait")
+                .tag("upstream", upstream)
+                .description("Time requests spent waiting for the client-side rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        final String key = Optional.ofNullable(request.headers().getFirst(keyHeader)).orElse(ANONYMOUS_KEY);
+        final TokenBucket bucket = buckets.computeIfAbsent(key, ignored -> new TokenBucket(requestsPerSecond, burst));
+        return exchange(request, next, bucket, 0);
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, TokenBucket bucket, int attempt) {
+        return Mono.defer(() -> {
+            final Duration wait = bucket.reserve();
+            waitTimer.record(wait);
+
+            final Mono<ClientResponse> response = next.exchange(request)
+                    .flatMap(clientResponse -> handleResponse(request, next, bucket, attempt, clientResponse));
+            return wait.isZero() ? response : Mono.delay(wait).then(response);
+        });
+    }
+
+    private Mono<ClientResponse> handleResponse(
+            ClientRequest request, ExchangeFunction next, TokenBucket bucket, int attempt, ClientResponse response) {
+        final HttpHeaders headers = response.headers().asHttpHeaders();
+
+        if (response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            final Duration retryAfter = parseSeconds(headers.getFirst(HttpHeaders.RETRY_AFTER)).orElse(DEFAULT_RETRY_AFTER);
+            bucket.pauseFor(retryAfter);
+            recordThrottle("too_many_requests");
+
+            if (attempt >= maxRetries) return Mono.just(response);
+
+            log.warn("{} returned 429 for {} {}, retrying in {}ms",
+                    upstream, request.method(), request.url().getPath(), retryAfter.toMillis());
+            // The body of the 429 has to be consumed before the connection can be reused
+            return response.releaseBody().then(exchange(request, next, bucket, attempt + 1));
+        }
+
+        if ("0".equals(headers.getFirst(REMAINING_HEADER))) {
+            parseSeconds(headers.getFirst(RESET_HEADER)).ifPresent(reset -> {
+                bucket.pauseFor(reset);
+                recordThrottle("quota_exhausted");
+            });
+        }
+
+        return Mono.just(response);
+    }
+
+    private void recordThrottle(String reason) {
+        meterRegistry.counter("http_client.rate_limit.throttled", "upstream", upstream, "reason", reason).increment();
+    }
+
+    private static Optional<Duration> parseSeconds(String value) {
+        if (value == null) return Optional.empty();
+        try {
+            return Optional.of(Duration.ofMillis((long) (Double.parseDouble(value.trim()) * 1000)));
+        } catch (NumberFormatException e) {
+            return Optional.empty(); // HTTP-date values are not used by these upstreams
+        }
+    }
+
+    private static final class TokenBucket {
+        private final double refillPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+        private long pausedUntil = lastRefill;
+
+        private TokenBucket(double requestsPerSecond, int capacity) {
+            this.refillPerNano = requestsPerSecond / 1_000_000_000.0;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        // Takes a token, going into debt if none is left; the debt is the time the caller has to wait
+        private synchronized Duration reserve() {
+            final long now = System.nanoTime();
+            refill(now);
+            tokens -= 1;
+
+            final long debtNanos = tokens >= 0 ? 0 : (long) (-tokens / refillPerNano);
+            return Duration.ofNanos(Math.max(0, pausedUntil - now) + debtNanos);
+        }
+
+        // Nothing is let through until the pause ends, and no burst builds up during it
+        private synchronized void pauseFor(Duration pause) {
+            final long now = System.nanoTime();
+            refill(now);
+            pausedUntil = Math.max(pausedUntil, now + pause.toNanos());
+            tokens = Math.min(tokens, 0);
+        }
+
+        // Tokens only accumulate outside of pauses
+        private void refill(long now) {
+            final long from = Math.max(lastRefill, pausedUntil);
+            if (now > from) tokens = Math.min(capacity, tokens + (now - from) * refillPerNano);
+            lastRefill = Math.max(lastRefill, now);
+        }
+    }
+}
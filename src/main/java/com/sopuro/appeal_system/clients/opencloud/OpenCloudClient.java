@@ -9,21 +9,22 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.HttpExchange;
 import org.springframework.web.service.annotation.PatchExchange;
+import reactor.core.publisher.Mono;
 
 @HttpExchange
 public interface OpenCloudClient {
     @GetExchange("/cloud/v2/users/{userId}")
-    RobloxProfileDto getRobloxProfile(@PathVariable String userId);
+    Mono<RobloxProfileDto> getRobloxProfile(@PathVariable String userId);
 
     @GetExchange("/cloud/v2/users/{userId}:generateThumbnail?shape=SQUARE")
-    RobloxAvatarDto getRobloxAvatar(@PathVariable String userId);
+    Mono<RobloxAvatarDto> getRobloxAvatar(@PathVariable String userId);
 
     @GetExchange("/cloud/v2/universes/{universeId}/user-restrictions/{userRestrictionId}")
-    RobloxUserRestrictionDto getUserRestriction(
+    Mono<RobloxUserRestrictionDto> getUserRestriction(
             @PathVariable String universeId, @PathVariable String userRestrictionId);
 
     @PatchExchange("/cloud/v2/universes/{universeId}/user-restrictions/{userRestrictionId}")
-    RobloxUserRestrictionDto unbanUser(
+    Mono<RobloxUserRestrictionDto> unbanUser(
             @PathVariable String universeId,
             @PathVariable String userRestrictionId,
             @RequestBody RobloxUserUnbanDto newRestriction);
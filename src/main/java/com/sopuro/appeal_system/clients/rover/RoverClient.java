@@ -8,29 +8,30 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.service.annotation.DeleteExchange;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.HttpExchange;
+import reactor.core.publisher.Mono;
 
 @HttpExchange
 public interface RoverClient {
     @GetExchange("/guilds/{guildId}/discord-to-roblox/{discordUserId}")
-    DiscordToRobloxDto toRoblox(
+    Mono<DiscordToRobloxDto> toRoblox(
             @PathVariable String guildId,
             @PathVariable String discordUserId,
             @RequestHeader("Authorization") String token);
 
     @GetExchange("/guilds/{guildId}/roblox-to-discord/{robloxUserId}")
-    RobloxToDiscordDto toDiscord(
+    Mono<RobloxToDiscordDto> toDiscord(
             @PathVariable String guildId,
             @PathVariable String robloxUserId,
             @RequestHeader("Authorization") String token);
 
     @GetExchange("/guilds/{guildId}/bans/{robloxUserId}")
-    RoverBanDto getBan(
+    Mono<RoverBanDto> getBan(
             @PathVariable String guildId,
             @PathVariable String robloxUserId,
             @RequestHeader("Authorization") String token);
 
     @DeleteExchange("/guilds/{guildId}/bans/{robloxUserId}")
-    Void deleteBan(
+    Mono<Void> deleteBan(
             @PathVariable String guildId,
             @PathVariable String robloxUserId,
             @RequestHeader("Authorization") String token);
@@ -4,12 +4,11 @@ import com.sopuro.appeal_system.commands.SlashCommand;
 import com.sopuro.appeal_system.components.messages.AccessCodeDetailsMessage;
 import com.sopuro.appeal_system.components.messages.CaseAccessDetailsMessage;
 import com.sopuro.appeal_system.components.messages.GenericSuccessFollowUp;
-import com.sopuro.appeal_system.entities.AccessCodeBlacklistEntity;
 import com.sopuro.appeal_system.entities.CaseEntity;
 import com.sopuro.appeal_system.exceptions.AppealException;
 import com.sopuro.appeal_system.exceptions.appeal.CaseNotFoundException;
-import com.sopuro.appeal_system.repositories.AccessCodeBlacklistRepository;
 import com.sopuro.appeal_system.repositories.CaseRepository;
+import com.sopuro.appeal_system.services.AccessCodeRevocationService;
 import com.sopuro.appeal_system.shared.enums.AppealRole;
 import com.sopuro.appeal_system.shared.utils.EncryptionHelper;
 import discord4j.common.util.Snowflake;
@@ -35,7 +34,7 @@ import java.util.UUID;
 @Slf4j
 public class AccessCommandHandler implements SlashCommand {
     private final CaseRepository caseRepository;
-    private final AccessCodeBlacklistRepository blacklistRepository;
+    private final AccessCodeRevocationService revocationService;
     private final GatewayDiscordClient gateway;
 
     @Value("${appeal-system.front-end.domain}")
@@ -109,14 +108,8 @@ public class AccessCommandHandler implements SlashCommand {
 
         if (details == null) return Mono.error(new AppealException("The provided access code is not valid"));
         else
-            return Mono.fromCallable(() -> {
-                        AccessCodeBlacklistEntity blacklistEntity = AccessCodeBlacklistEntity.builder()
-                                .accessCode(accessCode)
-                                .createdBy(
-                                        event.getInteraction().getUser().getId().asString())
-                                .build();
-                        return blacklistRepository.save(blacklistEntity);
-                    })
+            return Mono.fromRunnable(() -> revocationService.revoke(
+                            accessCode, event.getInteraction().getUser().getId().asString()))
                     .subscribeOn(Schedulers.boundedElastic())
                     .then(event.createFollowup(
                             GenericSuccessFollowUp.create("Access code has been revoked successfully")))
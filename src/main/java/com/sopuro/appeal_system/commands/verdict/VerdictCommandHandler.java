@@ -17,6 +17,8 @@ import com.sopuro.appeal_system.exceptions.appeal.*;
 import com.sopuro.appeal_system.exceptions.rover.RoverUnbanFailedException;
 import com.sopuro.appeal_system.repositories.CaseRepository;
 import com.sopuro.appeal_system.repositories.GuildConfigRepository;
+import com.sopuro.appeal_system.services.PendingCaseIndexService;
+import com.sopuro.appeal_system.services.RobloxProfileService;
 import com.sopuro.appeal_system.shared.enums.*;
 import com.sopuro.appeal_system.shared.permissions.RoleOverwrites;
 import com.sopuro.appeal_system.shared.utils.TokenHelper;
@@ -35,7 +37,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
@@ -43,6 +45,7 @@ import reactor.util.function.Tuples;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @Slf4j
@@ -56,6 +59,8 @@ public class VerdictCommandHandler implements SlashCommand {
     private final GuildConfigRepository guildConfigRepository;
     private final OpenCloudClient openCloudClient;
     private final RoverClient roverClient;
+    private final PendingCaseIndexService pendingCaseIndexService;
+    private final RobloxProfileService robloxProfileService;
 
     @Value("${appeal-system.front-end.domain}")
     private String domainName;
@@ -100,8 +105,8 @@ public class VerdictCommandHandler implements SlashCommand {
                     log.info("Verdict '{}' applied to case {} with reason: {}", verdict, updatedCase.getId(), reason);
                     return getRobloxProfileAndAvatar(updatedCase.getAppealerRobloxId())
                             .flatMap(tuple -> {
-                                RobloxProfileDto profile = tuple.getT1();
-                                RobloxAvatarDto avatar = tuple.getT2();
+                                RobloxProfileDto profile = tuple.getT1().orElse(null);
+                                RobloxAvatarDto avatar = tuple.getT2().orElse(null);
                                 GameConfigDto gameConfig =
                                         appealSystemConfig.getGameConfigByServerId(guildId.asString());
 
@@ -118,7 +123,9 @@ public class VerdictCommandHandler implements SlashCommand {
                                                                 CaseLogMessage.create(updatedCase, profile, avatar))))
                                         .then(event.createFollowup(
                                                 GenericSuccessFollowUp.create("Verdict has been applied")))
-                                        .thenReturn(Tuples.of(updatedCase, profile));
+                                        .thenReturn(Tuples.of(
+                                                updatedCase,
+                                                profile != null ? profile.name() : updatedCase.getAppealerRobloxId()));
                             });
                 })
                 .flatMap(tuple -> Mono.when(
@@ -130,17 +137,22 @@ public class VerdictCommandHandler implements SlashCommand {
                 .then();
     }
 
-    private Mono<Tuple2<RobloxProfileDto, RobloxAvatarDto>> getRobloxProfileAndAvatar(String robloxId) {
-        Mono<RobloxProfileDto> profileMono = Mono.fromCallable(() -> openCloudClient.getRobloxProfile(robloxId))
-                .subscribeOn(Schedulers.boundedElastic());
-
-        Mono<RobloxAvatarDto> avatarMono = Mono.fromCallable(() -> openCloudClient.getRobloxAvatar(robloxId))
-                .subscribeOn(Schedulers.boundedElastic());
-
-        return Mono.zip(profileMono, avatarMono).onErrorResume(throwable -> {
-            log.error("Failed to fetch Roblox profile or avatar for ID {}: {}", robloxId, throwable.getMessage());
-            return Mono.error(new AppealException("Failed to fetch Roblox profile or avatar"));
-        });
+    // The verdict is already committed at this point, so an unhealthy Open Cloud only degrades the case log
+    private Mono<Tuple2<Optional<RobloxProfileDto>, Optional<RobloxAvatarDto>>> getRobloxProfileAndAvatar(
+            String robloxId) {
+        return Mono.zip(
+                robloxProfileService.getProfile(robloxId)
+                        .map(Optional::of)
+                        .onErrorResume(throwable -> {
+                            log.warn("Rendering case log without Roblox profile {}: {}", robloxId, throwable.getMessage());
+                            return Mono.just(Optional.empty());
+                        }),
+                robloxProfileService.getAvatar(robloxId)
+                        .map(Optional::of)
+                        .onErrorResume(throwable -> {
+                            log.warn("Rendering case log without Roblox avatar {}: {}", robloxId, throwable.getMessage());
+                            return Mono.just(Optional.empty());
+                        }));
     }
 
     private Mono<CaseEntity> getCaseEntityFromChannel(Snowflake channelId) {
@@ -199,16 +211,15 @@ public class VerdictCommandHandler implements SlashCommand {
         if (verdict == AppealVerdict.ACCEPTED
                 && caseEntity.getPunishmentType() == PunishmentType.BAN
                 && caseEntity.getAppealPlatform() == AppealPlatform.GAME) {
-            return Mono.fromCallable(() -> openCloudClient.unbanUser(
+            return openCloudClient.unbanUser(
                             gameConfig.universeId(),
                             robloxId,
-                            new RobloxUserUnbanDto(new RobloxUserUnbanDto.RobloxGameJoinUnbanDto(false))))
-                    .subscribeOn(Schedulers.boundedElastic())
+                            new RobloxUserUnbanDto(new RobloxUserUnbanDto.RobloxGameJoinUnbanDto(false)))
                     .onErrorResume(
-                            HttpClientErrorException.NotFound.class,
+                            WebClientResponseException.NotFound.class,
                             ignored -> Mono.empty()) // User is not banned, treat as success
                     .onErrorResume(
-                            HttpClientErrorException.TooManyRequests.class,
+                            WebClientResponseException.TooManyRequests.class,
                             ignored -> Mono.error(new ApiTooManyRequestException()))
                     .then(updateCaseWithVerdict(caseEntity, verdict, reason, verdictBy));
         }
@@ -221,7 +232,7 @@ public class VerdictCommandHandler implements SlashCommand {
         return Mono.error(new AppealException("Unknown verdict handling case"));
     }
 
-    private Mono<Void> updateChannelName(CaseEntity caseEntity, RobloxProfileDto robloxProfile) {
+    private Mono<Void> updateChannelName(CaseEntity caseEntity, String robloxName) {
         String prefix =
                 switch (caseEntity.getAppealVerdict()) {
                     case ACCEPTED -> "\uD83D\uDFE2";
@@ -234,7 +245,7 @@ public class VerdictCommandHandler implements SlashCommand {
                 prefix,
                 caseEntity.getAppealPlatform().name().toLowerCase(),
                 caseEntity.getPunishmentType().name().toLowerCase(),
-                robloxProfile.name());
+                robloxName);
 
         return gatewayDiscordClient
                 .getChannelById(Snowflake.of(caseEntity.getChannelId()))
@@ -246,12 +257,11 @@ public class VerdictCommandHandler implements SlashCommand {
 
     private Mono<Void> unbanFromRover(String guildId, String robloxId, String gameName) {
         return Mono.fromSupplier(() -> TokenHelper.retrieveRoverTokenForGame(gameName, ServerType.COMMUNITY))
-                .flatMap(roverToken -> performRoverUnban(guildId, robloxId, roverToken, gameName))
-                .subscribeOn(Schedulers.boundedElastic());
+                .flatMap(roverToken -> performRoverUnban(guildId, robloxId, roverToken, gameName));
     }
 
     private Mono<Void> performRoverUnban(String guildId, String robloxId, String roverToken, String gameName) {
-        return Mono.fromCallable(() -> roverClient.deleteBan(guildId, robloxId, roverToken))
+        return roverClient.deleteBan(guildId, robloxId, roverToken)
                 .doOnSuccess(ignored ->
                         log.debug("Successfully unbanned robloxId '{}' from Rover for game {}", robloxId, gameName))
                 .onErrorResume(throwable -> handleRoverUnbanError(throwable, guildId, robloxId, gameName))
@@ -259,7 +269,7 @@ public class VerdictCommandHandler implements SlashCommand {
     }
 
     private Mono<Void> handleRoverUnbanError(Throwable throwable, String guildId, String robloxId, String gameName) {
-        if (throwable instanceof HttpClientErrorException.NotFound) {
+        if (throwable instanceof WebClientResponseException.NotFound) {
             log.info("Rover ban not found for guildId: {}, robloxId: {} - treating as success", guildId, robloxId);
             return Mono.empty();
         }
@@ -307,7 +317,9 @@ public class VerdictCommandHandler implements SlashCommand {
         caseEntity.setClosedAt(Instant.now());
         caseEntity.setVerdictBy(verdictBy);
 
-        return Mono.fromCallable(() -> caseRepository.save(caseEntity)).subscribeOn(Schedulers.boundedElastic());
+        return Mono.fromCallable(() -> caseRepository.save(caseEntity))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(pendingCaseIndexService::unregister);
     }
 
     private Mono<Void> moveCaseChannelToClosed(Snowflake channelSnowflake, Snowflake appealerId) {
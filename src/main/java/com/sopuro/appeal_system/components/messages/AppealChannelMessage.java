@@ -0,0 +1,49 @@
+package com.sopuro.appeal_system.components.messages;
+
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxAvatarDto;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxProfileDto;
+import com.sopuro.appeal_system.entities.CaseEntity;
+import discord4j.core.object.component.Container;
+import discord4j.core.object.entity.Message;
+import discord4j.core.spec.MessageCreateSpec;
+import reactor.util.annotation.Nullable;
+
+import java.util.List;
+import java.util.Optional;
+
+public class AppealChannelMessage {
+    // A Components V2 message holds at most 4000 characters of text. The profile and history panels stay well
+    // under 2000 and take 27 of the 40 allowed components, so only user-written text can push the case panel out
+    private static final int MAX_COMBINED_USER_TEXT_LENGTH = 2000;
+
+    public static List<MessageCreateSpec> create(
+            CaseEntity caseEntity,
+            RobloxProfileDto robloxProfile,
+            @Nullable RobloxAvatarDto robloxAvatar,
+            List<CaseEntity> history) {
+        Container caseInfo = CaseInfoMessage.container(caseEntity);
+        Container profile = RobloxProfileMessage.container(robloxProfile, robloxAvatar);
+        Container caseHistory = CaseHistoryMessage.container(history, robloxProfile.id(), robloxProfile.name());
+
+        return fitsInOneMessage(caseEntity)
+                ? List.of(message(caseInfo, profile, caseHistory))
+                : List.of(message(caseInfo), message(profile, caseHistory));
+    }
+
+    private static boolean fitsInOneMessage(CaseEntity caseEntity) {
+        int userTextLength = length(caseEntity.getPunishmentReason())
+                + length(caseEntity.getAppealReason())
+                + length(caseEntity.getVideoUrl());
+        return userTextLength <= MAX_COMBINED_USER_TEXT_LENGTH;
+    }
+
+    private static int length(String text) {
+        return Optional.ofNullable(text).map(String::length).orElse(0);
+    }
+
+    private static MessageCreateSpec message(Container... containers) {
+        return MessageCreateSpec.create()
+                .withFlags(Message.Flag.IS_COMPONENTS_V2)
+                .withComponents(containers);
+    }
+}
@@ -14,6 +14,13 @@ import java.util.List;
 public class CaseHistoryMessage {
 
     public static MessageCreateSpec create(List<CaseEntity> caseEntities, String robloxId, String robloxUsername) {
+        return MessageCreateSpec.builder()
+                .flags(Message.Flag.IS_COMPONENTS_V2)
+                .components(container(caseEntities, robloxId, robloxUsername))
+                .build();
+    }
+
+    public static Container container(List<CaseEntity> caseEntities, String robloxId, String robloxUsername) {
         Container container = Container.of(
                 TextDisplay.of("# :card_box:  APPEAL HISTORY"),
                 TextDisplay.of(
@@ -37,9 +44,6 @@ public class CaseHistoryMessage {
             });
         }
 
-        return MessageCreateSpec.builder()
-                .flags(Message.Flag.IS_COMPONENTS_V2)
-                .components(container.withAddedComponents(textDisplays.toArray(new TextDisplay[0])))
-                .build();
+        return container.withAddedComponents(textDisplays.toArray(new TextDisplay[0]));
     }
 }
@@ -10,6 +10,12 @@ import discord4j.core.spec.MessageCreateSpec;
 public class CaseInfoMessage {
 
     public static MessageCreateSpec create(CaseEntity caseEntity) {
+        return MessageCreateSpec.create()
+                .withFlags(Message.Flag.IS_COMPONENTS_V2)
+                .withComponents(container(caseEntity));
+    }
+
+    public static Container container(CaseEntity caseEntity) {
         Container container = Container.of(
                 TextDisplay.of("# :information_source:  CASE DETAILS"),
                 TextDisplay.of("**Case ID:** " + "`" + caseEntity.getId() + "`"),
@@ -20,12 +26,8 @@ public class CaseInfoMessage {
                 TextDisplay.of("**Punishment Reason:** \n> " + caseEntity.getPunishmentReason()),
                 TextDisplay.of("**Appeal Reason:** \n> " + caseEntity.getAppealReason()));
 
-        container = caseEntity.getVideoUrl() != null
+        return caseEntity.getVideoUrl() != null
                 ? container.withAddedComponent(TextDisplay.of("**Appeal Video:** \n> " + caseEntity.getVideoUrl()))
                 : container;
-
-        return MessageCreateSpec.create()
-                .withFlags(Message.Flag.IS_COMPONENTS_V2)
-                .withComponents(container);
     }
 }
@@ -9,41 +9,61 @@ import discord4j.core.object.component.*;
 import discord4j.core.object.entity.Message;
 import discord4j.core.spec.MessageCreateSpec;
 import discord4j.rest.util.Color;
+import reactor.util.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class CaseLogMessage {
 
     public static MessageCreateSpec create(
             CaseEntity caseEntity,
-            RobloxProfileDto robloxProfileDto,
-            RobloxAvatarDto robloxAvatarDto) {
+            @Nullable RobloxProfileDto robloxProfileDto,
+            @Nullable RobloxAvatarDto robloxAvatarDto) {
 
         Color containerColor = caseEntity.getAppealVerdict() == AppealVerdict.ACCEPTED ? Color.GREEN : Color.RED;
         String header = caseEntity.getAppealVerdict() == AppealVerdict.ACCEPTED
                 ? "# :white_check_mark:  APPEAL ACCEPTED"
                 : "# :x:  APPEAL REJECTED";
 
+        List<ICanBeUsedInContainerComponent> components = new ArrayList<>(List.of(
+                TextDisplay.of(header),
+                TextDisplay.of("**Appeal ID: **" + "`" + caseEntity.getId() + "`"),
+                TextDisplay.of("**Appealer Discord: **" + " <@" + caseEntity.getAppealerDiscordId() + ">"),
+                TextDisplay.of("**Game: **" + caseEntity.getGame()),
+                TextDisplay.of("**Type: **" + caseEntity.getPunishmentType()),
+                TextDisplay.of("**Platform: **" + caseEntity.getAppealPlatform()),
+                TextDisplay.of("**Closed by: **" + " <@" + caseEntity.getVerdictBy() + ">"),
+                TextDisplay.of("**Closed on: **" + TimestampFormat.LONG_DATE.format(caseEntity.getClosedAt())),
+                TextDisplay.of("**Reason:** \n> " + caseEntity.getVerdictReason()),
+                Separator.of(),
+                TextDisplay.of("# :video_game:  APPEALER ROBLOX PROFILE")));
+        components.addAll(robloxProfileComponents(caseEntity, robloxProfileDto, robloxAvatarDto));
+
         return MessageCreateSpec.create()
                 .withFlags(Message.Flag.IS_COMPONENTS_V2)
-                .withComponents(Container.of(
-                                TextDisplay.of(header),
-                                TextDisplay.of("**Appeal ID: **" + "`" + caseEntity.getId() + "`"),
-                                TextDisplay.of(
-                                        "**Appealer Discord: **" + " <@" + caseEntity.getAppealerDiscordId() + ">"),
-                                TextDisplay.of("**Game: **" + caseEntity.getGame()),
-                                TextDisplay.of("**Type: **" + caseEntity.getPunishmentType()),
-                                TextDisplay.of("**Platform: **" + caseEntity.getAppealPlatform()),
-                                TextDisplay.of("**Closed by: **" + " <@" + caseEntity.getVerdictBy() + ">"),
-                                TextDisplay.of(
-                                        "**Closed on: **" + TimestampFormat.LONG_DATE.format(caseEntity.getClosedAt())),
-                                TextDisplay.of("**Reason:** \n> " + caseEntity.getVerdictReason()),
-                                Separator.of(),
-                                TextDisplay.of("# :video_game:  APPEALER ROBLOX PROFILE"),
-                                Section.of(
-                                        Thumbnail.of(UnfurledMediaItem.of(
-                                                robloxAvatarDto.response().imageUri())),
-                                        TextDisplay.of("**ID:** " + "`" + robloxProfileDto.id() + "`"),
-                                        TextDisplay.of("**Username:** " + robloxProfileDto.name()),
-                                        TextDisplay.of("**Display Name:** " + robloxProfileDto.displayName())))
+                .withComponents(Container.of(components.toArray(ICanBeUsedInContainerComponent[]::new))
                         .withColor(containerColor));
     }
+
+    // Open Cloud may be unavailable when the verdict is applied, so the profile section degrades instead of failing
+    private static List<ICanBeUsedInContainerComponent> robloxProfileComponents(
+            CaseEntity caseEntity, @Nullable RobloxProfileDto robloxProfileDto, @Nullable RobloxAvatarDto robloxAvatarDto) {
+        if (robloxProfileDto == null) {
+            return List.of(
+                    TextDisplay.of("**ID:** " + "`" + caseEntity.getAppealerRobloxId() + "`"),
+                    TextDisplay.of("-# Roblox profile is currently unavailable"));
+        }
+
+        TextDisplay[] details = {
+            TextDisplay.of("**ID:** " + "`" + robloxProfileDto.id() + "`"),
+            TextDisplay.of("**Username:** " + robloxProfileDto.name()),
+            TextDisplay.of("**Display Name:** " + robloxProfileDto.displayName())
+        };
+
+        if (robloxAvatarDto == null) return List.<ICanBeUsedInContainerComponent>of(details);
+
+        return List.of(Section.of(
+                Thumbnail.of(UnfurledMediaItem.of(robloxAvatarDto.response().imageUri())), details));
+    }
 }
@@ -7,31 +7,44 @@ import discord4j.core.object.component.*;
 import discord4j.core.object.entity.Message;
 import discord4j.core.spec.MessageCreateSpec;
 import org.springframework.stereotype.Component;
+import reactor.util.annotation.Nullable;
 
 @Component
 public class RobloxProfileMessage {
 
     public static MessageCreateSpec create(
-            RobloxProfileDto robloxProfileDto, RobloxAvatarDto robloxAvatarDto) {
+            RobloxProfileDto robloxProfileDto, @Nullable RobloxAvatarDto robloxAvatarDto) {
         return MessageCreateSpec.create()
                 .withFlags(Message.Flag.IS_COMPONENTS_V2)
-                .withComponents(Container.of(
-                        TextDisplay.of("#  :video_game: ROBLOX PROFILE"),
-                        Section.of(
-                                Thumbnail.of(UnfurledMediaItem.of(robloxAvatarDto.response().imageUri())),
-                                TextDisplay.of("**ID:** " + "`" + robloxProfileDto.id() + "`"),
-                                TextDisplay.of("**Username:** " + robloxProfileDto.name()),
-                                TextDisplay.of("**Display Name:** " + robloxProfileDto.displayName())),
-                        Separator.of(),
-                        TextDisplay.of("**Premium:** " + (robloxProfileDto.premium() ? ":white_check_mark:" : ":x:")),
-                        TextDisplay.of("**Account Creation Time:** " + TimestampFormat.LONG_DATE.format(robloxProfileDto.createTime())),
-                        Separator.of(),
-                        ActionRow.of(
-                                Button.link(
-                                        "https://roblox.com/users/" + robloxProfileDto.id() + "/profile",
-                                        "View Profile"
-                                )
+                .withComponents(container(robloxProfileDto, robloxAvatarDto));
+    }
+
+    public static Container container(RobloxProfileDto robloxProfileDto, @Nullable RobloxAvatarDto robloxAvatarDto) {
+        String id = "**ID:** " + "`" + robloxProfileDto.id() + "`";
+        String username = "**Username:** " + robloxProfileDto.name();
+        String displayName = "**Display Name:** " + robloxProfileDto.displayName();
+        // Without an avatar there is no thumbnail to anchor a section, so the details are listed plainly
+        ICanBeUsedInContainerComponent identity = robloxAvatarDto != null
+                ? Section.of(
+                        Thumbnail.of(UnfurledMediaItem.of(robloxAvatarDto.response().imageUri())),
+                        TextDisplay.of(id),
+                        TextDisplay.of(username),
+                        TextDisplay.of(displayName))
+                : TextDisplay.of(String.join("\n", id, username, displayName));
+
+        return Container.of(
+                TextDisplay.of("#  :video_game: ROBLOX PROFILE"),
+                identity,
+                Separator.of(),
+                TextDisplay.of("**Premium:** " + (robloxProfileDto.premium() ? ":white_check_mark:" : ":x:")),
+                TextDisplay.of("**Account Creation Time:** " + TimestampFormat.LONG_DATE.format(robloxProfileDto.createTime())),
+                Separator.of(),
+                ActionRow.of(
+                        Button.link(
+                                "https://roblox.com/users/" + robloxProfileDto.id() + "/profile",
+                                "View Profile"
                         )
-                ));
+                )
+        );
     }
 }
\ No newline at end of file
@@ -1,27 +1,67 @@
 package com.sopuro.appeal_system.configs;
 
+import com.sopuro.appeal_system.shared.enums.GatewayProfile;
+import discord4j.common.store.Store;
+import discord4j.common.store.legacy.LegacyStoreLayout;
 import discord4j.core.DiscordClientBuilder;
 import discord4j.core.GatewayDiscordClient;
+import discord4j.core.shard.GatewayBootstrap;
+import discord4j.core.shard.MemberRequestFilter;
+import discord4j.discordjson.json.ChannelData;
+import discord4j.discordjson.json.GuildData;
+import discord4j.discordjson.json.RoleData;
+import discord4j.discordjson.json.UserData;
+import discord4j.gateway.GatewayOptions;
+import discord4j.gateway.intent.Intent;
 import discord4j.gateway.intent.IntentSet;
 import discord4j.rest.RestClient;
+import discord4j.store.api.mapping.MappingStoreService;
+import discord4j.store.api.noop.NoOpStoreService;
+import discord4j.store.jdk.JdkStoreService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@Slf4j
 public class DiscordBotConfig {
+    // Guild lifecycle (GuildCreateEvent, channel and role cache) and message logging in appeal channels.
+    // Bans are looked up over REST and interactions need no intent at all.
+    private static final IntentSet MINIMAL_INTENTS =
+            IntentSet.of(Intent.GUILDS, Intent.GUILD_MESSAGES, Intent.MESSAGE_CONTENT);
+
     @Bean
-    public GatewayDiscordClient gatewayDiscordClient(@Value("${discord.bot.token}") String token) {
-        return DiscordClientBuilder.create(token)
-                .build()
-                .gateway()
-                .setEnabledIntents(IntentSet.all())
-                .login()
-                .block();
+    public GatewayDiscordClient gatewayDiscordClient(
+            @Value("${discord.bot.token}") String token,
+            @Value("${discord.gateway.profile:minimal}") GatewayProfile gatewayProfile) {
+        GatewayBootstrap<GatewayOptions> gateway =
+                DiscordClientBuilder.create(token).build().gateway();
+
+        log.info("Connecting to the Discord gateway with the {} profile", gatewayProfile);
+
+        return switch (gatewayProfile) {
+            case MINIMAL -> gateway.setEnabledIntents(MINIMAL_INTENTS)
+                    .setStore(createMinimalStore())
+                    .setMemberRequestFilter(MemberRequestFilter.none())
+                    .login()
+                    .block();
+            case FULL -> gateway.setEnabledIntents(IntentSet.all())
+                    .login()
+                    .block();
+        };
     }
 
     @Bean
     public RestClient discordRestClient(GatewayDiscordClient gatewayDiscordClient) {
         return gatewayDiscordClient.getRestClient();
     }
+
+    // Guilds, channels and roles are read on almost every interaction; members, presences, voice
+    // states, emojis and messages are never read from the cache, so they are not stored at all
+    private Store createMinimalStore() {
+        return Store.fromLayout(LegacyStoreLayout.of(MappingStoreService.create()
+                .setMapping(new JdkStoreService(), GuildData.class, ChannelData.class, RoleData.class, UserData.class)
+                .setFallback(new NoOpStoreService())));
+    }
 }
@@ -0,0 +1,124 @@
+package com.sopuro.appeal_system.configs;
+
+import com.sopuro.appeal_system.clients.RateLimitingExchangeFilter;
+import com.sopuro.appeal_system.clients.ResilienceExchangeFilter;
+import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
+import com.sopuro.appeal_system.clients.rover.RoverClient;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.support.WebClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Configuration
+public class HttpClientConfig {
+    private static final String OPEN_CLOUD_API_KEY_HEADER = "x-api-key";
+
+    @Value("${appeal-system.rate-limits.max-retries:3}")
+    private int maxRetries;
+
+    @Bean
+    public CircuitBreakerRegistry upstreamCircuitBreakers(
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.upstreams.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${appeal-system.upstreams.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${appeal-system.upstreams.slow-call-threshold:3s}") Duration slowCallThreshold,
+            @Value("${appeal-system.upstreams.open-duration:30s}") Duration openDuration) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry upstreamBulkheads(
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.upstreams.max-concurrent-calls:20}") int maxConcurrentCalls) {
+        // A non-zero wait would block the subscribing thread, which is a gateway or Netty event loop here,
+        // so a full bulkhead rejects immediately instead
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public RoverClient roverClient(
+            WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry,
+            CircuitBreakerRegistry circuitBreakers,
+            BulkheadRegistry bulkheads,
+            @Value("${appeal-system.upstreams.rover.base-url:https://registry.rover.link/api}") String baseUrl,
+            @Value("${appeal-system.upstreams.rover.timeout:5s}") Duration timeout,
+            @Value("${appeal-system.rate-limits.rover.requests-per-minute:60}") int requestsPerMinute,
+            @Value("${appeal-system.rate-limits.rover.burst:10}") int burst) {
+        WebClient webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                // Rover limits each token separately
+                .filter(new RateLimitingExchangeFilter(
+                        "rover", HttpHeaders.AUTHORIZATION, requestsPerMinute, burst, maxRetries, meterRegistry))
+                .filter(ExchangeFilterFunction.ofRequestProcessor(request -> {
+                    String auth = request.headers().getFirst(HttpHeaders.AUTHORIZATION);
+                    if (auth == null || auth.startsWith("Bearer ")) return Mono.just(request);
+
+                    return Mono.just(ClientRequest.from(request)
+                            .headers(headers -> headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + auth))
+                            .build());
+                }))
+                .filter(new ResilienceExchangeFilter(
+                        circuitBreakers.circuitBreaker("rover"), bulkheads.bulkhead("rover"), timeout))
+                .build();
+
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient))
+                .build()
+                .createClient(RoverClient.class);
+    }
+
+    @Bean
+    public OpenCloudClient openCloudClient(
+            WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry,
+            CircuitBreakerRegistry circuitBreakers,
+            BulkheadRegistry bulkheads,
+            @Value("${open.cloud.token}") String openCloudToken,
+            @Value("${appeal-system.upstreams.open-cloud.base-url:https://apis.roblox.com}") String baseUrl,
+            @Value("${appeal-system.upstreams.open-cloud.timeout:5s}") Duration timeout,
+            @Value("${appeal-system.rate-limits.open-cloud.requests-per-minute:300}") int requestsPerMinute,
+            @Value("${appeal-system.rate-limits.open-cloud.burst:20}") int burst) {
+        WebClient webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .defaultHeader(OPEN_CLOUD_API_KEY_HEADER, openCloudToken)
+                .filter(new RateLimitingExchangeFilter(
+                        "open_cloud", OPEN_CLOUD_API_KEY_HEADER, requestsPerMinute, burst, maxRetries, meterRegistry))
+                .filter(new ResilienceExchangeFilter(
+                        circuitBreakers.circuitBreaker("open_cloud"), bulkheads.bulkhead("open_cloud"), timeout))
+                .build();
+
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient))
+                .build()
+                .createClient(OpenCloudClient.class);
+    }
+}
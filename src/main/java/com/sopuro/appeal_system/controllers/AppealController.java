@@ -1,27 +1,58 @@
 package com.sopuro.appeal_system.controllers;
 
-import com.sopuro.appeal_system.entities.CaseEntity;
+import com.sopuro.appeal_system.dtos.TranscriptPageDto;
 import com.sopuro.appeal_system.exceptions.appeal.CaseNotFoundException;
 import com.sopuro.appeal_system.services.AppealHistoryService;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("appeals")
-@RequiredArgsConstructor
 public class AppealController {
     private final AppealHistoryService appealService;
+    private final CacheControl closedCaseCacheControl;
 
+    public AppealController(
+            AppealHistoryService appealService,
+            @Value("${appeal-system.case-views.browser-max-age:1h}") Duration browserMaxAge) {
+        this.appealService = appealService;
+        // Access codes are personal, so responses must never end up in a shared cache
+        this.closedCaseCacheControl = CacheControl.maxAge(browserMaxAge).cachePrivate();
+    }
+
+    // ETag and Last-Modified let Spring answer conditional requests with 304 Not Modified
     @GetMapping("/{access-code}")
-    public ResponseEntity<CaseEntity> retrieveCaseByAccessCode(
+    public ResponseEntity<byte[]> retrieveCaseByAccessCode(
             @PathVariable("access-code") String accessCode) {
-        Optional<CaseEntity> result = appealService.retrieveCaseByAccessCode(accessCode);
+        Optional<AppealHistoryService.CaseViewPayload> result = appealService.retrieveCaseByAccessCode(accessCode);
+        if (result.isEmpty()) throw new CaseNotFoundException();
+
+        AppealHistoryService.CaseViewPayload payload = result.get();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(payload.eTag())
+                .cacheControl(payload.closed() ? closedCaseCacheControl : CacheControl.noCache().cachePrivate());
+        if (payload.lastModified() != null) response.lastModified(payload.lastModified());
+
+        return response.body(payload.body());
+    }
+
+    @GetMapping("/{access-code}/transcript")
+    public ResponseEntity<TranscriptPageDto> retrieveTranscriptByAccessCode(
+            @PathVariable("access-code") String accessCode,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        Optional<TranscriptPageDto> result = appealService.retrieveTranscriptByAccessCode(accessCode, cursor, limit);
         if (result.isEmpty()) throw new CaseNotFoundException();
         return ResponseEntity.ok(result.get());
     }
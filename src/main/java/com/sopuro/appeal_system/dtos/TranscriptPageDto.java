@@ -0,0 +1,10 @@
+package com.sopuro.appeal_system.dtos;
+
+import com.sopuro.appeal_system.repositories.projections.MessageLogView;
+
+import java.util.List;
+
+public record TranscriptPageDto(
+        List<MessageLogView> messages,
+        String nextCursor
+) {}
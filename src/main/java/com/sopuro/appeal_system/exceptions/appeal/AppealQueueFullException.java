@@ -0,0 +1,9 @@
+package com.sopuro.appeal_system.exceptions.appeal;
+
+import com.sopuro.appeal_system.exceptions.AppealException;
+
+public class AppealQueueFullException extends AppealException {
+    public AppealQueueFullException() {
+        super("We are receiving a very large number of appeals right now. Please try again in a few minutes.");
+    }
+}
@@ -0,0 +1,9 @@
+package com.sopuro.appeal_system.exceptions.appeal;
+
+import com.sopuro.appeal_system.exceptions.AppealException;
+
+public class AppealQueueTimeoutException extends AppealException {
+    public AppealQueueTimeoutException() {
+        super("Your appeal waited too long in the queue and was not submitted. Please try again in a few minutes.");
+    }
+}
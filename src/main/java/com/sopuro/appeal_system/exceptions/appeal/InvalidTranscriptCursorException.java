@@ -0,0 +1,9 @@
+package com.sopuro.appeal_system.exceptions.appeal;
+
+import com.sopuro.appeal_system.exceptions.AppealException;
+
+public class InvalidTranscriptCursorException extends AppealException {
+    public InvalidTranscriptCursorException() {
+        super("Transcript cursor is invalid");
+    }
+}
@@ -0,0 +1,122 @@
+package com.sopuro.appeal_system.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sopuro.appeal_system.dtos.GenericErrorResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token bucket in front of the public {@code /appeals} endpoints, which anyone can call with
+ * arbitrary access codes. Clients are keyed by remote address, or by the last entry of a configured forwarding
+ * header when the application sits behind a reverse proxy. Buckets of clients that went quiet are evicted.
+ */
+@Component
+public class AccessCodeRateLimitFilter extends OncePerRequestFilter {
+    private static final String PROTECTED_PATH = "/appeals/";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Bucket> buckets;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final String forwardedHeader;
+    private final Counter rejectedCounter;
+
+    public AccessCodeRateLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.public-api.rate-limit.requests-per-minute:30}") int requestsPerMinute,
+            @Value("${appeal-system.public-api.rate-limit.burst:10}") int burst,
+            @Value("${appeal-system.public-api.rate-limit.idle-eviction:10m}") Duration idleEviction,
+            @Value("${appeal-system.public-api.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${appeal-system.public-api.rate-limit.forwarded-header:}") String forwardedHeader) {
+        this.objectMapper = objectMapper;
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.forwardedHeader = forwardedHeader;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleEviction)
+                .maximumSize(maxClients)
+                .build();
+
+        this.rejectedCounter = Counter.builder("public_api.rate_limit.rejected")
+                .description("Requests to the public appeal endpoints rejected by the per-client rate limit")
+                .register(meterRegistry);
+        Gauge.builder("public_api.rate_limit.buckets", buckets, Cache::estimatedSize)
+                .description("Clients currently tracked by the public appeal endpoint rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(PROTECTED_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = buckets.get(clientKey(request), ignored -> new Bucket()).tryAcquire(System.nanoTime());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        rejectedCounter.increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(
+                HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new GenericErrorResponseDto(
+                HttpStatus.TOO_MANY_REQUESTS.value(), request.getRequestURI(), "Too many requests", Instant.now()));
+    }
+
+    // The proxy appends the address it saw, so the last entry is the only one a client cannot forge
+    private String clientKey(HttpServletRequest request) {
+        if (!forwardedHeader.isBlank()) {
+            String forwarded = request.getHeader(forwardedHeader);
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Lock-free token bucket in its GCRA form: the only state is the theoretical arrival time of the next
+     * request, advanced with a compare-and-set.
+     */
+    private class Bucket {
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+        // Returns 0 when the request may proceed, otherwise how long the client has to wait
+        long tryAcquire(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long arrival = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+
+                long wait = arrival - now - burstToleranceNanos;
+                if (wait > 0) return wait;
+
+                if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sopuro.appeal_system.listeners;
+
+import com.sopuro.appeal_system.configs.AppealSystemConfig;
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.message.MessageBulkDeleteEvent;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import discord4j.core.event.domain.message.MessageDeleteEvent;
+import discord4j.core.event.domain.message.MessageEvent;
+import discord4j.core.event.domain.message.MessageUpdateEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * First stage of the message event pipeline. Community servers produce most of the gateway traffic,
+ * so their events are rejected with a primitive lookup before any Reactor operator runs for them.
+ */
+@Component
+public class AppealGuildEventFilter {
+    private static final long NO_GUILD = 0L;
+
+    private final long[] appealGuildIds;
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+
+    public AppealGuildEventFilter(AppealSystemConfig appealSystemConfig, MeterRegistry meterRegistry) {
+        this.appealGuildIds = appealSystemConfig.getAppealServerIds().stream()
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        this.acceptedCounter = Counter.builder("gateway.message_events")
+                .tag("result", "accepted")
+                .description("Message events that came from an appeal server")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("gateway.message_events")
+                .tag("result", "dropped")
+                .description("Message events dropped because they came from outside the appeal servers")
+                .register(meterRegistry);
+    }
+
+    public boolean isFromAppealGuild(MessageEvent event) {
+        long guildId = getGuildId(event);
+
+        if (guildId != NO_GUILD && Arrays.binarySearch(appealGuildIds, guildId) >= 0) {
+            acceptedCounter.increment();
+            return true;
+        }
+
+        droppedCounter.increment();
+        return false;
+    }
+
+    private long getGuildId(MessageEvent event) {
+        Optional<Snowflake> guildId = switch (event) {
+            case MessageCreateEvent createEvent -> createEvent.getGuildId();
+            case MessageUpdateEvent updateEvent -> updateEvent.getGuildId();
+            case MessageDeleteEvent deleteEvent -> deleteEvent.getGuildId();
+            case MessageBulkDeleteEvent bulkDeleteEvent -> Optional.of(bulkDeleteEvent.getGuildId());
+            default -> Optional.empty();
+        };
+
+        return guildId.isPresent() ? guildId.get().asLong() : NO_GUILD;
+    }
+}
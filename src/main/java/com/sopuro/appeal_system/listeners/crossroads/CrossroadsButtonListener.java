@@ -1,7 +1,5 @@
 package com.sopuro.appeal_system.listeners.crossroads;
 
-import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
-import com.sopuro.appeal_system.clients.rover.RoverClient;
 import com.sopuro.appeal_system.commands.panel.PanelCommandHandler;
 import com.sopuro.appeal_system.components.menus.MenuAppealDiscord;
 import com.sopuro.appeal_system.components.messages.GenericErrorFollowUp;
@@ -13,6 +11,7 @@ import com.sopuro.appeal_system.exceptions.AppealException;
 import com.sopuro.appeal_system.exceptions.appeal.AppealDisabledException;
 import com.sopuro.appeal_system.exceptions.appeal.MissingGuildContextException;
 import com.sopuro.appeal_system.repositories.GuildConfigRepository;
+import com.sopuro.appeal_system.services.AppealIdentityService;
 import com.sopuro.appeal_system.shared.enums.GuildConfig;
 import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
@@ -39,8 +38,7 @@ public class CrossroadsButtonListener {
     private final GatewayDiscordClient gatewayDiscordClient;
     private final AppealSystemConfig appealSystemConfig;
     private final GuildConfigRepository guildConfigRepository;
-    private final RoverClient roverClient;
-    private final OpenCloudClient openCloudClient;
+    private final AppealIdentityService appealIdentityService;
 
     @PostConstruct
     public void initializeEventHandlers() {
@@ -140,17 +138,17 @@ public class CrossroadsButtonListener {
         String userInfo = getUserInfo(event);
         String guildId =
                 event.getInteraction().getGuildId().map(Snowflake::asString).orElse("Unknown");
-        String normalizedGameName =
-                appealSystemConfig.getGameConfigByServerId(guildId).normalizedName();
+        GameConfigDto gameConfig = appealSystemConfig.getGameConfigByServerId(guildId);
 
         log.info(
                 "Processing Discord appeal request for user {} in game '{}' (guild: {})",
                 userInfo,
-                normalizedGameName,
+                gameConfig.normalizedName(),
                 guildId);
 
         return event.reply(MenuAppealDiscord.createSelectMenu())
                 .doOnSuccess(ignored -> log.debug("Successfully sent Discord appeal menu to user {}", userInfo))
+                .doOnSuccess(ignored -> prefetchIdentity(event, gameConfig, guildId, false))
                 .then();
     }
 
@@ -166,7 +164,15 @@ public class CrossroadsButtonListener {
                 gameConfig.normalizedName(),
                 guildId);
 
-        return event.presentModal(GameAppealModal.INSTANCE.createModal());
+        return event.presentModal(GameAppealModal.INSTANCE.createModal())
+                .doOnSuccess(ignored -> prefetchIdentity(event, gameConfig, guildId, true));
+    }
+
+    // Started only once the interaction has been answered, so it can never hold up the response
+    private void prefetchIdentity(
+            ButtonInteractionEvent event, GameConfigDto gameConfig, String guildId, boolean inGameAppeal) {
+        String userId = event.getInteraction().getUser().getId().asString();
+        appealIdentityService.prefetch(gameConfig, guildId, userId, inGameAppeal);
     }
 
     private Mono<Void> handleInteractionError(ButtonInteractionEvent event, Throwable error) {
@@ -7,6 +7,7 @@ import com.sopuro.appeal_system.dtos.GameConfigDto;
 import com.sopuro.appeal_system.exceptions.AppealException;
 import com.sopuro.appeal_system.exceptions.appeal.NotAppealGuildException;
 import com.sopuro.appeal_system.exceptions.appeal.UserIsNotDiscordBannedException;
+import com.sopuro.appeal_system.services.AppealIdentityService;
 import com.sopuro.appeal_system.shared.enums.PunishmentType;
 import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
@@ -31,6 +32,7 @@ public class CrossroadsMenuListener {
 
     private final GatewayDiscordClient gatewayDiscordClient;
     private final AppealSystemConfig appealSystemConfig;
+    private final AppealIdentityService appealIdentityService;
 
     @PostConstruct
     public void initializeEventHandlers() {
@@ -87,7 +89,9 @@ public class CrossroadsMenuListener {
         log.info("Processing Discord appeal menu selection '{}' for user {} in game '{}' (guild: {})",
                 selectedOption, getUserInfo(event), gameConfig.normalizedName(), guildIdString);
 
-        return routeMenuSelection(event, selectedOption, gameConfig);
+        return routeMenuSelection(event, selectedOption, gameConfig)
+                .doOnSuccess(ignored -> appealIdentityService.prefetch(
+                        gameConfig, guildIdString, event.getUser().getId().asString(), false));
     }
 
     private boolean isAppealGuild(String guildId) {
@@ -1,17 +1,11 @@
 package com.sopuro.appeal_system.listeners.crossroads;
 
-import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
 import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxAvatarDto;
 import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxProfileDto;
-import com.sopuro.appeal_system.clients.rover.RoverClient;
-import com.sopuro.appeal_system.clients.rover.dtos.DiscordToRobloxDto;
-import com.sopuro.appeal_system.components.messages.CaseHistoryMessage;
-import com.sopuro.appeal_system.components.messages.CaseInfoMessage;
+import com.sopuro.appeal_system.components.messages.AppealChannelMessage;
 import com.sopuro.appeal_system.components.messages.GenericErrorFollowUp;
-import com.sopuro.appeal_system.components.messages.RobloxProfileMessage;
 import com.sopuro.appeal_system.components.modals.DiscordAppealModal;
 import com.sopuro.appeal_system.components.modals.GameAppealModal;
-import com.sopuro.appeal_system.configs.AppealSystemConfig;
 import com.sopuro.appeal_system.dtos.GameConfigDto;
 import com.sopuro.appeal_system.entities.CaseEntity;
 import com.sopuro.appeal_system.entities.GuildConfigEntity;
@@ -22,32 +16,42 @@ import com.sopuro.appeal_system.exceptions.appeal.UserIsNotRobloxBannedException
 import com.sopuro.appeal_system.exceptions.rover.RobloxAccountNotVerifiedException;
 import com.sopuro.appeal_system.repositories.CaseRepository;
 import com.sopuro.appeal_system.repositories.GuildConfigRepository;
+import com.sopuro.appeal_system.services.AppealAdmissionService;
 import com.sopuro.appeal_system.services.AppealValidationService;
+import com.sopuro.appeal_system.services.PendingCaseIndexService;
+import com.sopuro.appeal_system.shared.AppealIdentity;
 import com.sopuro.appeal_system.shared.AppealSubmissionContextFactory;
 import com.sopuro.appeal_system.shared.enums.*;
 import com.sopuro.appeal_system.shared.permissions.RoleOverwrites;
-import com.sopuro.appeal_system.shared.utils.TokenHelper;
 import discord4j.common.util.Snowflake;
 import discord4j.common.util.TimestampFormat;
 import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.interaction.ModalSubmitInteractionEvent;
 import discord4j.core.object.PermissionOverwrite;
 import discord4j.core.object.entity.channel.Channel;
-import discord4j.core.object.entity.channel.TextChannel;
+import discord4j.core.spec.MessageCreateSpec;
 import discord4j.core.spec.TextChannelCreateSpec;
+import discord4j.rest.entity.RestChannel;
 import discord4j.rest.util.PermissionSet;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.annotation.Nullable;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
@@ -63,15 +67,20 @@ public class CrossroadsModalListener {
     private static final String DEFAULT_ERROR_MESSAGE =
             "An error occurred while processing your command. Please try again later.";
     private static final String TIMEOUT_MESSAGE = "The request timed out. Please try again.";
+    private static final String QUEUED_MESSAGE_FORMAT =
+            "We are receiving a lot of appeals right now. Your appeal is number **%d** in the queue and will be "
+                    + "submitted automatically, please keep this message open.";
+    private static final String PENDING_APPEAL_CONSTRAINT = "uq_cases_pending_appeal";
+    private static final String DUPLICATE_CHANNEL_DELETE_REASON = "Duplicate appeal submission";
 
     private final CaseRepository caseRepository;
     private final GuildConfigRepository guildConfigRepository;
     private final GatewayDiscordClient gatewayDiscordClient;
-    private final AppealSystemConfig appealSystemConfig;
-    private final RoverClient roverClient;
-    private final OpenCloudClient openCloudClient;
     private final AppealValidationService validationService;
     private final AppealSubmissionContextFactory contextFactory;
+    private final PendingCaseIndexService pendingCaseIndexService;
+    private final AppealAdmissionService admissionService;
+    private final Set<SubmissionKey> inFlightSubmissions = ConcurrentHashMap.newKeySet();
 
     @PostConstruct
     public void initializeEventHandlers() {
@@ -115,48 +124,62 @@ public class CrossroadsModalListener {
 
         logAppealSubmission(context);
 
-        return event.deferReply()
-                .withEphemeral(true)
-                .then(specificValidator.apply(context))
-                .then(checkForExistingPendingCases(context))
+        final Mono<Void> submission = specificValidator.apply(context)
                 .then(processAppealSubmission(event, context))
                 .flatMap(channelId -> sendSuccessResponse(event, context.discordUserId(), channelId))
                 .doOnSuccess(ignored -> logSuccessfulSubmission(context, submittedAt))
                 .onErrorResume(throwable -> handleModalSubmissionError(event, throwable))
                 .timeout(OPERATION_TIMEOUT)
                 .onErrorResume(throwable -> handleTimeout(event, throwable));
+
+        // A user who already has a pending case is rejected before taking a place in the queue. The operation
+        // timeout only starts once the submission is admitted, not while it waits in the queue
+        return event.deferReply()
+                .withEphemeral(true)
+                .then(runSingleFlight(context, checkForExistingPendingCases(context)
+                        .then(admissionService.admit(
+                                context.normalizedGameName(),
+                                position -> notifyQueuePosition(event, position),
+                                submission))))
+                .onErrorResume(throwable -> handleModalSubmissionError(event, throwable));
     }
 
-    private Mono<Void> validateGameAppeal(ModalSubmitInteractionEvent event, AppealSubmissionContextFactory.AppealSubmissionContext context) {
-        return validationService.validateGameAppeal(event)
-                .then(checkUserBannedInGame(context));
+    private Mono<Void> notifyQueuePosition(ModalSubmitInteractionEvent event, int position) {
+        return event.editReply(String.format(QUEUED_MESSAGE_FORMAT, position)).then();
     }
 
-    private Mono<Void> checkUserBannedInGame(AppealSubmissionContextFactory.AppealSubmissionContext context) {
-        final GameConfigDto gameConfig = appealSystemConfig.getGameConfigByServerId(context.guildId());
-        final String token = TokenHelper.retrieveRoverTokenForGame(gameConfig.normalizedName(), ServerType.APPEAL);
+    // A double click or a second client submitting the same appeal is rejected while the first one is running
+    private <T> Mono<T> runSingleFlight(
+            AppealSubmissionContextFactory.AppealSubmissionContext context, Mono<T> submission) {
+        final SubmissionKey key = new SubmissionKey(
+                context.normalizedGameName(), context.discordUserId(), context.punishmentType(), context.platform());
 
-        return getRobloxAccountForUser(context.guildId(), context.discordUserId(), token)
-                .flatMap(profile -> validateUserRestriction(gameConfig, profile))
-                .onErrorMap(HttpClientErrorException.NotFound.class,
-                        _ -> new UserIsNotRobloxBannedException(gameConfig.name()));
+        return Mono.defer(() -> {
+            if (!inFlightSubmissions.add(key)) {
+                logDuplicateAppeal(context);
+                return Mono.error(new ExistingPendingCaseException());
+            }
+            return submission.doFinally(ignored -> inFlightSubmissions.remove(key));
+        });
     }
 
-    private Mono<DiscordToRobloxDto> getRobloxAccountForUser(String guildId, String userId, String token) {
-        return Mono.fromCallable(() -> roverClient.toRoblox(guildId, userId, token))
-                .subscribeOn(Schedulers.boundedElastic());
+    private Mono<Void> validateGameAppeal(ModalSubmitInteractionEvent event, AppealSubmissionContextFactory.AppealSubmissionContext context) {
+        return validationService.validateGameAppeal(event)
+                .then(checkUserBannedInGame(context));
     }
 
-    private Mono<Void> validateUserRestriction(GameConfigDto gameConfig, DiscordToRobloxDto profile) {
-        return Mono.fromCallable(() -> openCloudClient.getUserRestriction(
-                        gameConfig.universeId(), String.valueOf(profile.robloxId())))
-                .subscribeOn(Schedulers.boundedElastic())
+    private Mono<Void> checkUserBannedInGame(AppealSubmissionContextFactory.AppealSubmissionContext context) {
+        final GameConfigDto gameConfig = context.gameConfig();
+
+        return context.identity().userRestriction()
                 .flatMap(userRestriction -> {
                     if (userRestriction.gameJoinRestriction().active()) {
                         return Mono.empty(); // User is banned - success case
                     }
                     return Mono.error(new UserIsNotRobloxBannedException(gameConfig.name()));
-                });
+                })
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        _ -> new UserIsNotRobloxBannedException(gameConfig.name()));
     }
 
     private void logAppealSubmission(AppealSubmissionContextFactory.AppealSubmissionContext context) {
@@ -171,9 +194,38 @@ public class CrossroadsModalListener {
 
     private Mono<Snowflake> processAppealSubmission(
             ModalSubmitInteractionEvent event, AppealSubmissionContextFactory.AppealSubmissionContext context) {
-        return retrieveUserRobloxAccount(context)
-                .flatMap(robloxProfile -> createAppealChannelAndCase(event, context, robloxProfile))
-                .flatMap(appealData -> populateChannelWithDetails(event, appealData))
+        final AppealIdentity identity = context.identity();
+
+        return retrieveUserRobloxId(identity)
+                .flatMap(robloxId -> {
+                    // Only the channel needs the profile (for its name); the avatar and the appeal history just need
+                    // the Roblox ID, so they are fetched while the channel and case are being created
+                    Mono<AppealCreationResult> appealCreation = Mono.zip(
+                                    retrieveUserRobloxProfile(identity),
+                                    getAppealsCategoryId(context.guildId(), context.platform()))
+                            .flatMap(tuple -> createAppealChannelAndCase(event, context, tuple.getT1(), tuple.getT2()));
+
+                    // The avatar and history only decorate the channel; they must never fail the zip, since that
+                    // would cancel the creation branch halfway and leave an orphan channel or unindexed case
+                    Mono<Optional<RobloxAvatarDto>> avatar = identity.robloxAvatar()
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .onErrorResume(throwable -> {
+                                log.warn("Creating appeal channel without Roblox avatar {}: {}",
+                                        robloxId, throwable.getMessage());
+                                return Mono.just(Optional.empty());
+                            });
+                    Mono<List<CaseEntity>> history = fetchCaseHistory(context.discordUserId(), robloxId)
+                            .onErrorResume(throwable -> {
+                                log.warn("Creating appeal channel without case history of {}: {}",
+                                        context.discordUserId(), throwable.getMessage());
+                                return Mono.just(List.of());
+                            });
+
+                    return Mono.zip(appealCreation, avatar, history);
+                })
+                .flatMap(tuple ->
+                        populateChannelWithDetails(tuple.getT1(), tuple.getT2().orElse(null), tuple.getT3()))
                 .map(AppealCreationResult::channelId);
     }
 
@@ -203,48 +255,64 @@ public class CrossroadsModalListener {
                 context.platform());
     }
 
-    private Mono<RobloxProfileDto> retrieveUserRobloxAccount(AppealSubmissionContextFactory.AppealSubmissionContext context) {
-        final String roverToken =
-                TokenHelper.retrieveRoverTokenForGame(context.normalizedGameName(), ServerType.APPEAL);
+    private Mono<String> retrieveUserRobloxId(AppealIdentity identity) {
+        return identity.robloxId()
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        ignored -> new RobloxAccountNotVerifiedException());
+    }
 
-        return getRobloxAccountForUser(context.guildId(), context.discordUserId(), roverToken)
-                .map(robloxAccount -> String.valueOf(robloxAccount.robloxId()))
-                .flatMap(this::fetchRobloxProfile)
-                .onErrorMap(HttpClientErrorException.NotFound.class,
+    private Mono<RobloxProfileDto> retrieveUserRobloxProfile(AppealIdentity identity) {
+        return identity.robloxProfile()
+                .onErrorMap(WebClientResponseException.NotFound.class,
                         ignored -> new RobloxAccountNotVerifiedException());
     }
 
-    private Mono<RobloxProfileDto> fetchRobloxProfile(String robloxId) {
-        return Mono.fromCallable(() -> openCloudClient.getRobloxProfile(robloxId))
+    private Mono<List<CaseEntity>> fetchCaseHistory(String discordUserId, String robloxId) {
+        return Mono.fromCallable(() -> caseRepository.getCasesOfAppealer(discordUserId, robloxId))
                 .subscribeOn(Schedulers.boundedElastic());
     }
 
     private Mono<AppealCreationResult> createAppealChannelAndCase(
-            ModalSubmitInteractionEvent event, AppealSubmissionContextFactory.AppealSubmissionContext context, RobloxProfileDto robloxProfile) {
+            ModalSubmitInteractionEvent event,
+            AppealSubmissionContextFactory.AppealSubmissionContext context,
+            RobloxProfileDto robloxProfile,
+            String categoryId) {
 
-        return createAppealChannel(context, robloxProfile.name())
+        return createAppealChannel(context, robloxProfile.name(), categoryId)
                 .flatMap(channelId -> persistAppealCase(event, context, robloxProfile.id(), channelId)
                         .map(caseEntity -> new AppealCreationResult(channelId, robloxProfile, caseEntity)));
     }
 
     private Mono<AppealCreationResult> populateChannelWithDetails(
-            ModalSubmitInteractionEvent event, AppealCreationResult appealData) {
-
-        return sendCaseDetailsMessage(appealData.channelId(), appealData.caseEntity())
-                .then(fetchAndSendRobloxProfileMessage(appealData.channelId(), appealData.robloxProfile()))
-                .then(sendCaseHistoryMessage(
-                        appealData.channelId(),
-                        event.getInteraction().getUser().getId().asString(),
-                        appealData.robloxProfile().id(),
-                        appealData.robloxProfile().name()))
+            AppealCreationResult appealData, @Nullable RobloxAvatarDto avatar, List<CaseEntity> history) {
+
+        final RestChannel channel = gatewayDiscordClient.getRestClient().getChannelById(appealData.channelId());
+        final List<MessageCreateSpec> messages = AppealChannelMessage.create(
+                appealData.caseEntity(),
+                appealData.robloxProfile(),
+                avatar,
+                withNewCase(history, appealData.caseEntity()));
+
+        return Flux.fromIterable(messages)
+                .concatMap(message -> channel.createMessage(message.asRequest()))
+                .then()
                 .thenReturn(appealData);
     }
 
-    private Mono<Snowflake> createAppealChannel(AppealSubmissionContextFactory.AppealSubmissionContext context, String robloxUsername) {
-        final String channelName = generateChannelName(context, robloxUsername);
+    // History is read while the case is being saved, so it may not contain the new case yet
+    private List<CaseEntity> withNewCase(List<CaseEntity> history, CaseEntity newCase) {
+        if (history.stream().anyMatch(caseEntity -> caseEntity.getId().equals(newCase.getId()))) return history;
+
+        final List<CaseEntity> cases = new ArrayList<>(history.size() + 1);
+        cases.add(newCase);
+        cases.addAll(history);
+        return cases;
+    }
 
-        return getAppealsCategoryId(context.guildId(), context.platform())
-                .flatMap(categoryId -> createTextChannelWithPermissions(context, channelName, categoryId));
+    private Mono<Snowflake> createAppealChannel(
+            AppealSubmissionContextFactory.AppealSubmissionContext context, String robloxUsername, String categoryId) {
+        final String channelName = generateChannelName(context, robloxUsername);
+        return createTextChannelWithPermissions(context, channelName, categoryId);
     }
 
     private String generateChannelName(AppealSubmissionContextFactory.AppealSubmissionContext context, String robloxUsername) {
@@ -291,7 +359,7 @@ public class CrossroadsModalListener {
     private TextChannelCreateSpec buildChannelCreateSpec(
             AppealSubmissionContextFactory.AppealSubmissionContext context, String channelName, String categoryId) {
 
-        final GameConfigDto gameConfig = appealSystemConfig.getGameConfigByServerId(context.guildId());
+        final GameConfigDto gameConfig = context.gameConfig();
         final String topic = String.format(
                 CHANNEL_TOPIC_FORMAT,
                 context.username(),
@@ -323,44 +391,37 @@ public class CrossroadsModalListener {
                         PermissionSet.none()));
     }
 
-    private Mono<Void> sendCaseDetailsMessage(Snowflake channelId, CaseEntity caseEntity) {
-        return getTextChannel(channelId)
-                .flatMap(channel -> channel.createMessage(CaseInfoMessage.create(caseEntity)))
-                .then();
-    }
-
-    private Mono<Void> fetchAndSendRobloxProfileMessage(Snowflake channelId, RobloxProfileDto robloxProfile) {
-        return Mono.fromCallable(() -> openCloudClient.getRobloxAvatar(robloxProfile.id()))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(avatar -> sendRobloxProfileMessage(channelId, robloxProfile, avatar));
-    }
-
-    private Mono<Void> sendRobloxProfileMessage(Snowflake channelId, RobloxProfileDto profile, RobloxAvatarDto avatar) {
-        return getTextChannel(channelId)
-                .flatMap(channel -> channel.createMessage(RobloxProfileMessage.create(profile, avatar)))
-                .then();
-    }
-
-    private Mono<Void> sendCaseHistoryMessage(
-            Snowflake channelId, String discordUserId, String robloxId, String username) {
-
-        return Mono.fromCallable(() -> caseRepository.getCasesOfAppealer(discordUserId, robloxId))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(cases -> getTextChannel(channelId)
-                        .flatMap(channel -> channel.createMessage(CaseHistoryMessage.create(cases, robloxId, username))))
-                .then();
-    }
-
-    private Mono<TextChannel> getTextChannel(Snowflake channelId) {
-        return gatewayDiscordClient.getChannelById(channelId).cast(TextChannel.class);
-    }
-
     private Mono<CaseEntity> persistAppealCase(
             ModalSubmitInteractionEvent event, AppealSubmissionContextFactory.AppealSubmissionContext context, String robloxId, Snowflake channelId) {
 
         final CaseEntity caseEntity = buildCaseEntity(event, context, robloxId, channelId.asString());
 
-        return Mono.fromCallable(() -> caseRepository.save(caseEntity)).subscribeOn(Schedulers.boundedElastic());
+        return Mono.fromCallable(() -> caseRepository.save(caseEntity))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> handleDuplicatePendingCase(context, channelId, e))
+                .doOnNext(pendingCaseIndexService::register);
+    }
+
+    // Another instance saved the same appeal first; its channel is the one that stays
+    private Mono<CaseEntity> handleDuplicatePendingCase(
+            AppealSubmissionContextFactory.AppealSubmissionContext context,
+            Snowflake channelId,
+            DataIntegrityViolationException error) {
+        if (!(error.getCause() instanceof ConstraintViolationException violation)
+                || !PENDING_APPEAL_CONSTRAINT.equals(violation.getConstraintName())) {
+            return Mono.error(error);
+        }
+
+        logDuplicateAppeal(context);
+        return gatewayDiscordClient.getRestClient()
+                .getChannelById(channelId)
+                .delete(DUPLICATE_CHANNEL_DELETE_REASON)
+                .onErrorResume(deleteError -> {
+                    log.error("Failed to delete duplicate appeal channel {}", channelId.asString(), deleteError);
+                    return Mono.empty();
+                })
+                .then(Mono.<CaseEntity>error(new ExistingPendingCaseException()));
     }
 
     private CaseEntity buildCaseEntity(
@@ -439,6 +500,12 @@ public class CrossroadsModalListener {
             RobloxProfileDto robloxProfile,
             CaseEntity caseEntity) {}
 
+    private record SubmissionKey(
+            String game,
+            String discordUserId,
+            PunishmentType punishmentType,
+            AppealPlatform platform) {}
+
     private record AppealModalData(
             String punishmentReason,
             String appealReason) {}
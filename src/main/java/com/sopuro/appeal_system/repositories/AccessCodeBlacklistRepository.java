@@ -2,9 +2,14 @@ package com.sopuro.appeal_system.repositories;
 
 import com.sopuro.appeal_system.entities.AccessCodeBlacklistEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AccessCodeBlacklistRepository extends JpaRepository<AccessCodeBlacklistEntity, String> {
     Optional<AccessCodeBlacklistEntity> findByAccessCode(String accessCode);
+
+    @Query("SELECT b.accessCode FROM AccessCodeBlacklistEntity b")
+    List<String> findAllAccessCodes();
 }
@@ -1,13 +1,20 @@
 package com.sopuro.appeal_system.repositories;
 
 import com.sopuro.appeal_system.entities.CaseEntity;
+import com.sopuro.appeal_system.repositories.projections.CaseChannelProjection;
+import com.sopuro.appeal_system.repositories.projections.CaseCleanupCandidate;
+import com.sopuro.appeal_system.repositories.projections.CaseView;
 import com.sopuro.appeal_system.shared.enums.AppealPlatform;
 import com.sopuro.appeal_system.shared.enums.AppealVerdict;
 import com.sopuro.appeal_system.shared.enums.PunishmentType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +33,8 @@ public interface CaseRepository extends JpaRepository<CaseEntity, UUID> {
     @Query("SELECT c FROM CaseEntity c WHERE c.channelId = :channelId AND c.appealVerdict = :appealVerdict")
     Optional<CaseEntity> findAppealCase(String channelId, AppealVerdict appealVerdict);
 
+    List<CaseChannelProjection> findByAppealVerdict(AppealVerdict appealVerdict);
+
     @Query("SELECT c FROM CaseEntity c WHERE c.channelId = :channelId")
     Optional<CaseEntity> findAppealCaseByChannelId(String channelId);
 
@@ -34,7 +43,22 @@ public interface CaseRepository extends JpaRepository<CaseEntity, UUID> {
             + "ORDER BY c.appealedAt DESC")
     List<CaseEntity> getCasesOfAppealer(String appealerDiscordId, String appealerRobloxId);
 
-    @Query("SELECT c FROM CaseEntity c WHERE c.closedAt < :#{T(java.time.Instant).now().minus(#days, T(java.time.temporal.ChronoUnit).DAYS)} "
-            + "AND c.cleanedUpAt IS NULL")
-    List<CaseEntity> getNotCleanedUpOldCases(@Param("days") long days);
+    @Query("SELECT new com.sopuro.appeal_system.repositories.projections.CaseCleanupCandidate("
+            + "c.id, c.channelId, c.game, c.closedAt) FROM CaseEntity c "
+            + "WHERE c.cleanedUpAt IS NULL AND c.closedAt < :closedBefore "
+            + "AND (c.closedAt > :afterClosedAt OR (c.closedAt = :afterClosedAt AND c.id > :afterId)) "
+            + "ORDER BY c.closedAt, c.id")
+    List<CaseCleanupCandidate> getCleanupCandidates(
+            Instant closedBefore, Instant afterClosedAt, UUID afterId, Limit limit);
+
+    @Query("SELECT new com.sopuro.appeal_system.repositories.projections.CaseView("
+            + "c.id, c.game, c.appealerDiscordId, c.appealerRobloxId, c.appealPlatform, c.appealVerdict, "
+            + "c.verdictReason, c.verdictBy, c.appealReason, c.punishmentType, c.punishmentReason, c.videoUrl, "
+            + "c.channelId, c.appealedAt, c.closedAt) FROM CaseEntity c WHERE c.id = :id")
+    Optional<CaseView> findCaseViewById(UUID id);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE cases SET cleaned_up_at = now() WHERE id = ANY(:ids)", nativeQuery = true)
+    int markCleanedUp(@Param("ids") UUID[] ids);
 }
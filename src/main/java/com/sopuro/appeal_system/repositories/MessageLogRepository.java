@@ -1,15 +1,22 @@
 package com.sopuro.appeal_system.repositories;
 
 import com.sopuro.appeal_system.entities.MessageLogEntity;
+import com.sopuro.appeal_system.repositories.projections.MessageLogView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 public interface MessageLogRepository extends JpaRepository<MessageLogEntity, String> {
-
-    @Query("SELECT m FROM MessageLogEntity m WHERE m.appealCase.id = :caseId AND m.id = :messageId")
-    Optional<MessageLogEntity> findByIdAndCaseId(String messageId, UUID caseId);
-
+    // Keyset page over the (case_id, creation_timestamp) index; id breaks ties between messages sent in the same instant
+    @Query("SELECT new com.sopuro.appeal_system.repositories.projections.MessageLogView("
+            + "m.id, m.authorId, m.content, m.creationTimestamp, m.lastEditedTimestamp) FROM MessageLogEntity m "
+            + "WHERE m.appealCase.id = :caseId "
+            + "AND (m.creationTimestamp > :afterTimestamp "
+            + "OR (m.creationTimestamp = :afterTimestamp AND m.id > :afterId)) "
+            + "ORDER BY m.creationTimestamp, m.id")
+    List<MessageLogView> getTranscriptPage(UUID caseId, Instant afterTimestamp, String afterId, Limit limit);
 }
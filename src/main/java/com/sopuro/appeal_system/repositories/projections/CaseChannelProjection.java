@@ -0,0 +1,9 @@
+package com.sopuro.appeal_system.repositories.projections;
+
+import java.util.UUID;
+
+public interface CaseChannelProjection {
+    UUID getId();
+
+    String getChannelId();
+}
@@ -0,0 +1,6 @@
+package com.sopuro.appeal_system.repositories.projections;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CaseCleanupCandidate(UUID id, String channelId, String game, Instant closedAt) {}
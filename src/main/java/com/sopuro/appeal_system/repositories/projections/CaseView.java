@@ -0,0 +1,27 @@
+package com.sopuro.appeal_system.repositories.projections;
+
+import com.sopuro.appeal_system.shared.enums.AppealPlatform;
+import com.sopuro.appeal_system.shared.enums.AppealVerdict;
+import com.sopuro.appeal_system.shared.enums.PunishmentType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Read model of a case without its transcript, which is served separately in pages. Cleanup bookkeeping is left out
+// so that a closed case's view never changes
+public record CaseView(
+        UUID id,
+        String game,
+        String appealerDiscordId,
+        String appealerRobloxId,
+        AppealPlatform appealPlatform,
+        AppealVerdict appealVerdict,
+        String verdictReason,
+        String verdictBy,
+        String appealReason,
+        PunishmentType punishmentType,
+        String punishmentReason,
+        String videoUrl,
+        String channelId,
+        Instant appealedAt,
+        Instant closedAt) {}
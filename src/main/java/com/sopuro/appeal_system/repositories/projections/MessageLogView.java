@@ -0,0 +1,6 @@
+package com.sopuro.appeal_system.repositories.projections;
+
+import java.time.Instant;
+
+public record MessageLogView(
+        String id, String authorId, String content, Instant creationTimestamp, Instant lastEditedTimestamp) {}
@@ -1,13 +1,13 @@
 package com.sopuro.appeal_system.schedulers;
 
-import com.sopuro.appeal_system.entities.CaseEntity;
 import com.sopuro.appeal_system.repositories.CaseRepository;
+import com.sopuro.appeal_system.repositories.projections.CaseCleanupCandidate;
 import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
-import discord4j.core.object.entity.channel.Channel;
 import discord4j.rest.http.client.ClientException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
@@ -17,82 +17,138 @@ import reactor.core.scheduler.Schedulers;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class AppealCleanUpScheduler {
+    private static final String DELETE_REASON = "Appeal case closed more than a day ago";
+    private static final Duration CLEANUP_DELAY = Duration.ofDays(1);
+    private static final int PAGE_SIZE = 100;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final String JOB_NAME = "case-channel-cleanup";
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(10);
+
     private final CaseRepository caseRepository;
     private final GatewayDiscordClient gateway;
+    private final JobCoordinator jobCoordinator;
+    private final AtomicBoolean cleanupInProgress = new AtomicBoolean(false);
 
     @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
     public void cleanupOldCaseChannels() {
-        try {
-            List<CaseEntity> oldCases = caseRepository.getNotCleanedUpOldCases(1);
+        // A large backlog can outlive a tick; let the running pass continue instead of starting over
+        if (!cleanupInProgress.compareAndSet(false, true)) {
+            log.debug("Previous cleanup run is still in progress, skipping this tick");
+            return;
+        }
 
-            if (oldCases.isEmpty()) {
-                log.debug("No old cases found for cleanup");
-                return;
-            }
+        Instant closedBefore = Instant.now().minus(CLEANUP_DELAY);
 
-            log.info("Starting cleanup of {} old case channels", oldCases.size());
-
-            Flux.fromIterable(oldCases)
-                    .delayElements(Duration.ofSeconds(2))
-                    .flatMap(caseEntity ->
-                            gateway.getChannelById(Snowflake.of(caseEntity.getChannelId()))
-                                    .flatMap(Channel::delete)
-                                    .then(updateCaseAsCleanedUp(caseEntity))
-                                    .doOnSuccess(saved -> log.debug("Successfully cleaned up case {}", saved.getId()))
-                                    .onErrorResume(throwable -> handleCleanupError(caseEntity, throwable))
-                    )
-                    .doOnComplete(() -> log.info("Cleanup task completed"))
-                    .timeout(Duration.ofMinutes(10)) // Prevent hanging indefinitely
-                    .blockLast();
-
-        } catch (Exception e) {
-            log.error("Error during scheduled cleanup task", e);
-        }
+        cleanupFrom(closedBefore, Instant.EPOCH, MIN_UUID)
+                .doOnSuccess(cleaned -> {
+                    if (cleaned > 0) log.info("Cleanup task completed, {} case channels cleaned up", cleaned);
+                    else log.debug("No old cases found for cleanup");
+                })
+                .doOnError(error -> log.error("Error during scheduled cleanup task", error))
+                .doFinally(ignored -> cleanupInProgress.set(false))
+                .subscribe(ignored -> {}, ignored -> {});
+    }
+
+    // Only one page is held at a time; the next one is fetched after the current page has been marked
+    private Mono<Long> cleanupFrom(Instant closedBefore, Instant afterClosedAt, UUID afterId) {
+        return fetchPage(closedBefore, afterClosedAt, afterId).flatMap(page -> {
+            if (page.isEmpty()) return Mono.just(0L);
+
+            CaseCleanupCandidate last = page.getLast();
+            return cleanupPage(page).flatMap(cleaned -> page.size() < PAGE_SIZE
+                    ? Mono.just(cleaned)
+                    : cleanupFrom(closedBefore, last.closedAt(), last.id()).map(rest -> rest + cleaned));
+        });
+    }
+
+    private Mono<List<CaseCleanupCandidate>> fetchPage(Instant closedBefore, Instant afterClosedAt, UUID afterId) {
+        return Mono.fromCallable(() -> caseRepository.getCleanupCandidates(
+                        closedBefore, afterClosedAt, afterId, Limit.of(PAGE_SIZE)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Other nodes scan the same pages, so only the cases this node manages to claim are cleaned up here
+    private Mono<Long> cleanupPage(List<CaseCleanupCandidate> page) {
+        return claimCases(page).flatMap(claimed -> {
+            if (claimed.isEmpty()) return Mono.just(0L);
+            log.debug("Cleaning up {} of {} old case channels in page", claimed.size(), page.size());
+            return cleanupClaimed(claimed);
+        });
     }
 
-    private Mono<CaseEntity> updateCaseAsCleanedUp(CaseEntity caseEntity) {
+    private Mono<List<CaseCleanupCandidate>> claimCases(List<CaseCleanupCandidate> page) {
         return Mono.fromCallable(() -> {
-                    caseEntity.setCleanedUpAt(Instant.now());
-                    return caseRepository.save(caseEntity);
+                    Set<String> claimedIds = jobCoordinator.claim(
+                            JOB_NAME, page.stream().map(c -> c.id().toString()).toList(), CLAIM_LEASE);
+                    return page.stream().filter(c -> claimedIds.contains(c.id().toString())).toList();
                 })
-                .subscribeOn(Schedulers.boundedElastic())
-                .doOnError(e -> log.error("Failed to update case {} as cleaned up", caseEntity.getId(), e));
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Long> cleanupClaimed(List<CaseCleanupCandidate> claimed) {
+        return Flux.fromIterable(claimed)
+                // Deletions in different guilds run concurrently, one at a time within a guild. Pacing is
+                // left to Discord4J's router, which queues requests on the rate limit buckets Discord reports
+                .groupBy(CaseCleanupCandidate::game)
+                .flatMap(guildCases -> guildCases.concatMap(this::cleanupCase))
+                .collectList()
+                .flatMap(this::markCleanedUp);
+    }
+
+    private Mono<UUID> cleanupCase(CaseCleanupCandidate candidate) {
+        return gateway.getRestClient()
+                .getChannelById(Snowflake.of(candidate.channelId()))
+                .delete(DELETE_REASON)
+                .thenReturn(candidate.id())
+                .doOnSuccess(caseId -> log.debug("Deleted channel {} of case {}", candidate.channelId(), caseId))
+                .onErrorResume(throwable -> handleCleanupError(candidate, throwable));
     }
 
-    private Mono<CaseEntity> handleCleanupError(CaseEntity caseEntity, Throwable throwable) {
-        if (throwable instanceof ClientException) {
-            ClientException ce = (ClientException) throwable;
+    private Mono<Long> markCleanedUp(List<UUID> caseIds) {
+        if (caseIds.isEmpty()) return Mono.just(0L);
+
+        // Failed cases keep their claim until the lease runs out, which doubles as a retry backoff
+        return Mono.fromCallable(() -> {
+                    long marked = caseRepository.markCleanedUp(caseIds.toArray(UUID[]::new));
+                    jobCoordinator.release(JOB_NAME, caseIds.stream().map(UUID::toString).toList());
+                    return marked;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(e -> log.error("Failed to mark {} cases as cleaned up", caseIds.size(), e));
+    }
 
+    private Mono<UUID> handleCleanupError(CaseCleanupCandidate candidate, Throwable throwable) {
+        if (throwable instanceof ClientException ce) {
             // Channel already deleted - mark as cleaned up
             if (ce.getStatus().code() == 404) {
-                log.debug("Channel {} for case {} already deleted",
-                        caseEntity.getChannelId(), caseEntity.getId());
-                return updateCaseAsCleanedUp(caseEntity);
+                log.debug("Channel {} for case {} already deleted", candidate.channelId(), candidate.id());
+                return Mono.just(candidate.id());
             }
 
             // No permission - mark as cleaned up to avoid retry loops
             if (ce.getStatus().code() == 403) {
-                log.warn("No permission to delete channel {} for case {}",
-                        caseEntity.getChannelId(), caseEntity.getId());
-                return updateCaseAsCleanedUp(caseEntity);
+                log.warn("No permission to delete channel {} for case {}", candidate.channelId(), candidate.id());
+                return Mono.just(candidate.id());
             }
 
-            // Rate limited - log but don't mark as cleaned up for retry
+            // Rate limited even after Discord4J's own retries - leave it for the next run
             if (ce.getStatus().code() == 429) {
                 log.warn("Rate limited while deleting channel {} for case {}",
-                        caseEntity.getChannelId(), caseEntity.getId());
+                        candidate.channelId(), candidate.id());
                 return Mono.empty();
             }
         }
 
-        log.error("Failed to cleanup case {} with channel {}",
-                caseEntity.getId(), caseEntity.getChannelId(), throwable);
+        log.error("Failed to cleanup case {} with channel {}", candidate.id(), candidate.channelId(), throwable);
         return Mono.empty(); // Don't mark as cleaned up for genuine failures
     }
 }
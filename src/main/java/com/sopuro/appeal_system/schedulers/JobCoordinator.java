@@ -0,0 +1,117 @@
+package com.sopuro.appeal_system.schedulers;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates scheduled jobs between application instances sharing the same database.
+ *
+ * <p>Work items are split with leases in {@code scheduled_job_claims}: a node only processes the items it
+ * managed to claim, and a claim left behind by a crashed node expires on its own. Jobs that must not run on
+ * more than one node at a time can use {@link #runExclusively} instead, which is backed by a transaction
+ * scoped Postgres advisory lock.
+ */
+@Component
+@Slf4j
+public class JobCoordinator {
+    // A conflicting row is only taken over once its lease has run out
+    private static final String CLAIM_SQL = """
+            INSERT INTO scheduled_job_claims (job_name, item_key, claimed_by, claimed_until)
+            SELECT ?, item_key, ?, now() + make_interval(secs => ?)
+            FROM unnest(?::varchar[]) AS item_key
+            ON CONFLICT (job_name, item_key) DO UPDATE
+            SET claimed_by = EXCLUDED.claimed_by, claimed_until = EXCLUDED.claimed_until
+            WHERE scheduled_job_claims.claimed_until < now()
+            RETURNING item_key""";
+    private static final String RELEASE_SQL =
+            "DELETE FROM scheduled_job_claims WHERE job_name = ? AND claimed_by = ? AND item_key = ANY(?::varchar[])";
+    private static final String PURGE_EXPIRED_SQL = "DELETE FROM scheduled_job_claims WHERE claimed_until < now()";
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    @Getter
+    private final String nodeId;
+
+    public JobCoordinator(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${appeal-system.scheduling.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The runtime name is pid@hostname, which is unique enough for replicas on separate hosts or containers
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        log.info("Scheduled jobs will claim work as node {}", this.nodeId);
+    }
+
+    /**
+     * Claims the given items for this node. Returns the subset that was claimed; items currently leased by
+     * another node are left out. A claim lasts until it is released or the lease runs out.
+     */
+    public Set<String> claim(String jobName, Collection<String> itemKeys, Duration lease) {
+        if (itemKeys.isEmpty()) return Set.of();
+
+        List<String> claimed = jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(CLAIM_SQL);
+                    statement.setString(1, jobName);
+                    statement.setString(2, nodeId);
+                    statement.setLong(3, lease.toSeconds());
+                    statement.setArray(4, connection.createArrayOf("varchar", itemKeys.toArray()));
+                    return statement;
+                },
+                (rs, rowNum) -> rs.getString(1));
+
+        return new LinkedHashSet<>(claimed);
+    }
+
+    /** Releases claims held by this node, normally once the claimed items have been processed. */
+    public void release(String jobName, Collection<String> itemKeys) {
+        if (itemKeys.isEmpty()) return;
+
+        jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(RELEASE_SQL);
+            statement.setString(1, jobName);
+            statement.setString(2, nodeId);
+            statement.setArray(3, connection.createArrayOf("varchar", itemKeys.toArray()));
+            return statement;
+        });
+    }
+
+    /**
+     * Runs the task if no other node is running the same job. The lock is held for the duration of the
+     * task's transaction, so the task should be synchronous. Returns false if the job was skipped.
+     */
+    public boolean runExclusively(String jobName, Runnable task) {
+        Boolean ran = transactionTemplate.execute(status -> {
+            Boolean acquired = jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, jobName);
+            if (!Boolean.TRUE.equals(acquired)) {
+                log.debug("Job {} is running on another node, skipping", jobName);
+                return false;
+            }
+            task.run();
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeExpiredClaims() {
+        int purged = jdbcTemplate.update(PURGE_EXPIRED_SQL);
+        if (purged > 0) log.debug("Purged {} expired job claims", purged);
+    }
+}
@@ -0,0 +1,131 @@
+package com.sopuro.appeal_system.schedulers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of {@code message_logs} ahead of incoming messages and, when retention is
+ * enabled, archives partitions past the retention age to gzipped CSV files before detaching and dropping them.
+ */
+@Component
+@Slf4j
+public class MessageLogPartitionScheduler {
+    private static final String JOB_NAME = "message-log-partitions";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("message_logs_y(\\d{4})m(\\d{2})");
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT child.relname
+            FROM pg_inherits
+                     JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                     JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = 'message_logs'""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobCoordinator jobCoordinator;
+    private final int monthsAhead;
+    private final boolean retentionEnabled;
+    private final int retentionMonths;
+    private final Path archiveDirectory;
+
+    public MessageLogPartitionScheduler(
+            JdbcTemplate jdbcTemplate,
+            JobCoordinator jobCoordinator,
+            @Value("${appeal-system.message-logs.partitions.months-ahead:2}") int monthsAhead,
+            @Value("${appeal-system.message-logs.retention.enabled:false}") boolean retentionEnabled,
+            @Value("${appeal-system.message-logs.retention.max-age-months:12}") int retentionMonths,
+            @Value("${appeal-system.message-logs.retention.archive-directory:archive/message-logs}")
+                    Path archiveDirectory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobCoordinator = jobCoordinator;
+        this.monthsAhead = monthsAhead;
+        this.retentionEnabled = retentionEnabled;
+        this.retentionMonths = retentionMonths;
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    @Scheduled(fixedDelay = 6, timeUnit = TimeUnit.HOURS)
+    public void maintainPartitions() {
+        try {
+            jobCoordinator.runExclusively(JOB_NAME, () -> {
+                createUpcomingPartitions();
+                if (retentionEnabled) archiveOldestExpiredPartition();
+            });
+        } catch (Exception e) {
+            log.error("Message log partition maintenance failed", e);
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF message_logs FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1)));
+        }
+    }
+
+    // One partition per run, so the lock taken on message_logs by DETACH is never held across several exports
+    private void archiveOldestExpiredPartition() {
+        YearMonth cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+
+        jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class).stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))))
+                .filter(month -> month.isBefore(cutoff))
+                .min(Comparator.naturalOrder())
+                .ifPresent(this::archiveAndDropPartition);
+    }
+
+    private void archiveAndDropPartition(YearMonth month) {
+        String partition = partitionName(month);
+        Path archive = archiveDirectory.resolve(partition + ".csv.gz");
+        Path partialArchive = archiveDirectory.resolve(partition + ".csv.gz.partial");
+
+        try {
+            Files.createDirectories(archiveDirectory);
+            long rows = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partialArchive))) {
+                    return connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyOut("COPY %s TO STDOUT WITH (FORMAT csv, HEADER)".formatted(partition), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            // The partition is only dropped once a complete archive exists under its final name
+            Files.move(partialArchive, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            jdbcTemplate.execute("ALTER TABLE message_logs DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Archived {} message logs from partition {} to {}", rows, partition, archive);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive partition " + partition, e);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "message_logs_" + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,187 @@
+package com.sopuro.appeal_system.services;
+
+import com.sopuro.appeal_system.entities.AccessCodeBlacklistEntity;
+import com.sopuro.appeal_system.repositories.AccessCodeBlacklistRepository;
+import com.sopuro.appeal_system.shared.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers whether an access code has been revoked without querying the blacklist for the vast majority of
+ * codes, which never are. A Bloom filter of revoked codes is loaded at startup; only codes it might contain
+ * are looked up in the database. Revocations made by other replicas arrive through Postgres
+ * {@code LISTEN/NOTIFY} on {@value #CHANNEL}, fed by a trigger on the blacklist table. The listener holds its own
+ * connection outside the pool, where it would otherwise take a slot for good and be retired by the pool's
+ * max lifetime.
+ */
+@Service
+@Slf4j
+public class AccessCodeRevocationService {
+    private static final String CHANNEL = "access_code_revoked";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration RECONNECT_BACKOFF = Duration.ofSeconds(5);
+
+    private final AccessCodeBlacklistRepository blacklistRepository;
+    private final JdbcConnectionDetails connectionDetails;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final Thread listenerThread;
+    private final Counter filterMissCounter;
+    private final Counter revokedCounter;
+    private final Counter falsePositiveCounter;
+
+    private volatile BloomFilter filter;
+    private volatile boolean running = true;
+
+    public AccessCodeRevocationService(
+            AccessCodeBlacklistRepository blacklistRepository,
+            JdbcConnectionDetails connectionDetails,
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.access-codes.revocation-filter.expected-revocations:10000}")
+                    int expectedRevocations,
+            @Value("${appeal-system.access-codes.revocation-filter.false-positive-rate:0.001}")
+                    double falsePositiveRate) {
+        this.blacklistRepository = blacklistRepository;
+        this.connectionDetails = connectionDetails;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.listenerThread = Thread.ofPlatform()
+                .name("access-code-revocation-listener")
+                .daemon()
+                .unstarted(this::runListenerLoop);
+
+        this.filterMissCounter = Counter.builder("access_codes.revocation_checks")
+                .tag("result", "filter_miss")
+                .description("Access codes cleared by the revocation filter without a database lookup")
+                .register(meterRegistry);
+        this.revokedCounter = Counter.builder("access_codes.revocation_checks")
+                .tag("result", "revoked")
+                .description("Access codes confirmed as revoked by the database")
+                .register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("access_codes.revocation_checks")
+                .tag("result", "false_positive")
+                .description("Access codes matched by the revocation filter but not revoked")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuild();
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    public boolean isRevoked(String accessCode) {
+        if (!filter.mightContain(accessCode)) {
+            filterMissCounter.increment();
+            return false;
+        }
+
+        if (blacklistRepository.existsById(accessCode)) {
+            revokedCounter.increment();
+            return true;
+        }
+
+        falsePositiveCounter.increment();
+        return false;
+    }
+
+    public void revoke(String accessCode, String revokedBy) {
+        blacklistRepository.save(AccessCodeBlacklistEntity.builder()
+                .accessCode(accessCode)
+                .createdBy(revokedBy)
+                .build());
+        // The notification will add it as well, but this replica should not wait for its own round trip
+        add(accessCode);
+    }
+
+    // Catches up on anything missed while the listener connection was down
+    @Scheduled(fixedDelay = 30, initialDelay = 30, timeUnit = TimeUnit.MINUTES)
+    public synchronized void resynchronize() {
+        List<String> revokedCodes = blacklistRepository.findAllAccessCodes();
+        revokedCodes.forEach(filter::put);
+        if (filter.isSaturated()) rebuild();
+    }
+
+    private synchronized void add(String accessCode) {
+        filter.put(accessCode);
+        if (filter.isSaturated()) rebuild();
+    }
+
+    // Writers are held off by the monitor, so no revocation can slip in between loading and swapping
+    private synchronized void rebuild() {
+        List<String> revokedCodes = blacklistRepository.findAllAccessCodes();
+        BloomFilter rebuilt =
+                new BloomFilter(Math.max(expectedRevocations, revokedCodes.size() * 2), falsePositiveRate);
+        revokedCodes.forEach(rebuilt::put);
+        filter = rebuilt;
+
+        log.info("Access code revocation filter loaded with {} revoked codes", revokedCodes.size());
+    }
+
+    private void runListenerLoop() {
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Revocations committed before LISTEN took effect would otherwise never reach this replica
+                resynchronize();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT.toMillis());
+                    if (notifications == null) continue;
+
+                    for (PGNotification notification : notifications) add(notification.getParameter());
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) return;
+                log.warn("Access code revocation listener disconnected, reconnecting in {}s: {}",
+                        RECONNECT_BACKOFF.toSeconds(), e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_BACKOFF.toMillis());
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Connection openListenerConnection() throws SQLException {
+        String username = connectionDetails.getUsername();
+        String password = connectionDetails.getPassword();
+
+        Properties properties = new Properties();
+        if (username != null) properties.setProperty("user", username);
+        if (password != null) properties.setProperty("password", password);
+        properties.setProperty("ApplicationName", "appeal-system-revocation-listener");
+        // Lets a dead connection surface as an error instead of leaving the loop waiting on it
+        properties.setProperty("tcpKeepAlive", "true");
+        return DriverManager.getConnection(connectionDetails.getJdbcUrl(), properties);
+    }
+}
@@ -0,0 +1,192 @@
+package com.sopuro.appeal_system.services;
+
+import com.sopuro.appeal_system.exceptions.appeal.AppealQueueFullException;
+import com.sopuro.appeal_system.exceptions.appeal.AppealQueueTimeoutException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+
+/**
+ * Admission control in front of the appeal submission pipeline. At most {@code max-concurrent} submissions run
+ * at once, and at most {@code max-concurrent-per-game} of those for a single game. Submissions beyond that wait
+ * in one FIFO queue; a waiting submission is admitted as soon as both limits allow it, so a busy game does not
+ * hold up submissions for the others. Once the queue is full new submissions are turned away.
+ */
+@Service
+@Slf4j
+public class AppealAdmissionService {
+    private final int maxConcurrent;
+    private final int maxConcurrentPerGame;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final Duration positionUpdateInterval;
+
+    // Guarded by this
+    private final Deque<Ticket> waiting = new ArrayDeque<>();
+    private final Map<String, Integer> runningPerGame = new HashMap<>();
+    private int running;
+
+    public AppealAdmissionService(
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.admission.max-concurrent:10}") int maxConcurrent,
+            @Value("${appeal-system.admission.max-concurrent-per-game:4}") int maxConcurrentPerGame,
+            @Value("${appeal-system.admission.max-queued:500}") int maxQueued,
+            @Value("${appeal-system.admission.max-wait:10m}") Duration maxWait,
+            @Value("${appeal-system.admission.position-update-interval:15s}") Duration positionUpdateInterval) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxConcurrentPerGame = maxConcurrentPerGame;
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.positionUpdateInterval = positionUpdateInterval;
+
+        Gauge.builder("appeal_submissions.queued", this, AppealAdmissionService::queuedCount)
+                .description("Appeal submissions waiting for admission")
+                .register(meterRegistry);
+        Gauge.builder("appeal_submissions.running", this, AppealAdmissionService::runningCount)
+                .description("Appeal submissions currently being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the submission once it is admitted. While it waits, {@code onQueued} is called with its 1-based queue
+     * position, first right away and then whenever the position has changed at the next update interval. An update
+     * still in flight when the submission is admitted is let finish before the submission starts, so it cannot
+     * overwrite the submission's own reply.
+     */
+    public <T> Mono<T> admit(String game, IntFunction<Mono<Void>> onQueued, Mono<T> submission) {
+        return Mono.defer(() -> {
+            final Ticket ticket = new Ticket(game);
+            final int position = enqueue(ticket);
+
+            if (position < 0) {
+                log.warn("Appeal submission queue is full, rejecting submission for game '{}'", game);
+                return Mono.error(new AppealQueueFullException());
+            }
+
+            final Mono<Void> admission = position == 0
+                    ? Mono.empty()
+                    : awaitAdmission(ticket, position, onQueued);
+
+            return admission
+                    .then(submission)
+                    .doFinally(ignored -> release(ticket));
+        });
+    }
+
+    private Mono<Void> awaitAdmission(Ticket ticket, int initialPosition, IntFunction<Mono<Void>> onQueued) {
+        log.info("Appeal submission for game '{}' queued at position {}", ticket.game, initialPosition);
+
+        // Position updates are best effort. Admission stops new ones without cancelling one already sent, and
+        // positions buffered behind it are dropped once the ticket has left the queue
+        final Mono<Void> positionUpdates = Flux.interval(positionUpdateInterval)
+                .map(ignored -> positionOf(ticket))
+                .startWith(initialPosition)
+                .filter(position -> position > 0)
+                .distinctUntilChanged()
+                .takeUntilOther(ticket.admitted.asMono())
+                .concatMap(position -> Mono.defer(() -> positionOf(ticket) > 0
+                                ? onQueued.apply(position)
+                                : Mono.<Void>empty())
+                        .onErrorResume(error -> Mono.empty()))
+                .then();
+
+        return Mono.when(positionUpdates, ticket.admitted.asMono())
+                .timeout(maxWait)
+                .onErrorMap(TimeoutException.class, ignored -> new AppealQueueTimeoutException());
+    }
+
+    // Returns 0 if admitted straight away, the queue position if queued, or -1 if the queue is full.
+    // Every waiting ticket is blocked by a limit (it would have been admitted on the last release otherwise),
+    // so a new ticket that fits within the limits does not jump ahead of anyone who could run
+    private synchronized int enqueue(Ticket ticket) {
+        if (canRun(ticket.game)) {
+            start(ticket);
+            return 0;
+        }
+        if (waiting.size() >= maxQueued) return -1;
+
+        waiting.addLast(ticket);
+        return waiting.size();
+    }
+
+    private void release(Ticket ticket) {
+        // Admitted submissions are signalled outside the lock, as they start running on the signalling thread
+        releaseAndAdmitWaiting(ticket).forEach(admitted -> admitted.admitted.tryEmitEmpty());
+    }
+
+    private synchronized List<Ticket> releaseAndAdmitWaiting(Ticket ticket) {
+        if (!ticket.started) {
+            // Cancelled or timed out while still waiting
+            waiting.remove(ticket);
+            return List.of();
+        }
+
+        running--;
+        runningPerGame.computeIfPresent(ticket.game, (game, count) -> count > 1 ? count - 1 : null);
+
+        final List<Ticket> admitted = new ArrayList<>();
+        final Iterator<Ticket> iterator = waiting.iterator();
+        while (iterator.hasNext() && running < maxConcurrent) {
+            final Ticket next = iterator.next();
+            if (!canRun(next.game)) continue;
+
+            iterator.remove();
+            start(next);
+            admitted.add(next);
+        }
+        return admitted;
+    }
+
+    private boolean canRun(String game) {
+        return running < maxConcurrent && runningPerGame.getOrDefault(game, 0) < maxConcurrentPerGame;
+    }
+
+    private void start(Ticket ticket) {
+        ticket.started = true;
+        running++;
+        runningPerGame.merge(ticket.game, 1, Integer::sum);
+    }
+
+    private synchronized int positionOf(Ticket ticket) {
+        int position = 1;
+        for (Ticket queued : waiting) {
+            if (queued == ticket) return position;
+            position++;
+        }
+        return 0;
+    }
+
+    private synchronized int queuedCount() {
+        return waiting.size();
+    }
+
+    private synchronized int runningCount() {
+        return running;
+    }
+
+    private static final class Ticket {
+        private final String game;
+        private final Sinks.Empty<Void> admitted = Sinks.empty();
+        private boolean started;
+
+        private Ticket(String game) {
+            this.game = game;
+        }
+    }
+}
@@ -1,38 +1,154 @@
 package com.sopuro.appeal_system.services;
 
-import com.sopuro.appeal_system.entities.AccessCodeBlacklistEntity;
-import com.sopuro.appeal_system.entities.CaseEntity;
-import com.sopuro.appeal_system.repositories.AccessCodeBlacklistRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sopuro.appeal_system.dtos.TranscriptPageDto;
+import com.sopuro.appeal_system.exceptions.appeal.InvalidTranscriptCursorException;
 import com.sopuro.appeal_system.repositories.CaseRepository;
+import com.sopuro.appeal_system.repositories.MessageLogRepository;
+import com.sopuro.appeal_system.repositories.projections.CaseView;
+import com.sopuro.appeal_system.repositories.projections.MessageLogView;
 import com.sopuro.appeal_system.shared.utils.EncryptionHelper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class AppealHistoryService {
+    public static final int MAX_TRANSCRIPT_PAGE_SIZE = 200;
+
     private final CaseRepository caseRepository;
-    private final AccessCodeBlacklistRepository blacklistRepository;
+    private final MessageLogRepository messageLogRepository;
+    private final AccessCodeRevocationService revocationService;
+    private final ObjectMapper objectMapper;
+    // A case no longer changes once it is closed, so its serialized view can be served as is
+    private final Cache<UUID, CaseViewPayload> closedCaseViews;
+    private final Counter malformedCodeCounter;
+
+    public AppealHistoryService(
+            CaseRepository caseRepository,
+            MessageLogRepository messageLogRepository,
+            AccessCodeRevocationService revocationService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.case-views.cache-ttl:1h}") Duration cacheTtl,
+            @Value("${appeal-system.case-views.max-size:2000}") long maxSize) {
+        this.caseRepository = caseRepository;
+        this.messageLogRepository = messageLogRepository;
+        this.revocationService = revocationService;
+        this.objectMapper = objectMapper;
+        this.closedCaseViews = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, closedCaseViews, "closed_case_views");
+        this.malformedCodeCounter = Counter.builder("access_codes.rejected")
+                .tag("reason", "malformed")
+                .description("Access codes rejected by shape before any lookup or decryption")
+                .register(meterRegistry);
+    }
+
+    public Optional<CaseViewPayload> retrieveCaseByAccessCode(String accessCode) {
+        return resolveCaseId(accessCode).flatMap(caseId -> {
+            CaseViewPayload cached = closedCaseViews.getIfPresent(caseId);
+            if (cached != null) return Optional.of(cached);
+
+            Optional<CaseViewPayload> payload = caseRepository.findCaseViewById(caseId).map(this::toPayload);
+            payload.filter(CaseViewPayload::closed).ifPresent(closed -> closedCaseViews.put(caseId, closed));
+            return payload;
+        });
+    }
+
+    public Optional<TranscriptPageDto> retrieveTranscriptByAccessCode(String accessCode, String cursor, int pageSize) {
+        Optional<UUID> caseId = resolveCaseId(accessCode);
+        if (caseId.isEmpty()) return Optional.empty();
+
+        TranscriptCursor after =
+                cursor == null || cursor.isBlank() ? TranscriptCursor.START : TranscriptCursor.decode(cursor);
+        int limit = Math.clamp(pageSize, 1, MAX_TRANSCRIPT_PAGE_SIZE);
+
+        // One extra row tells whether another page exists without a count query
+        List<MessageLogView> messages = messageLogRepository.getTranscriptPage(
+                caseId.get(), after.timestamp(), after.messageId(), Limit.of(limit + 1));
+        if (messages.size() <= limit) return Optional.of(new TranscriptPageDto(messages, null));
+
+        List<MessageLogView> page = messages.subList(0, limit);
+        MessageLogView last = page.getLast();
+        return Optional.of(new TranscriptPageDto(
+                page, new TranscriptCursor(last.creationTimestamp(), last.id()).encode()));
+    }
+
+    private CaseViewPayload toPayload(CaseView caseView) {
+        try {
+            boolean closed = caseView.closedAt() != null;
+            // The view holds nothing that changes after closing, so cached copies on any replica stay valid
+            String eTag = "%s-%d".formatted(caseView.id(), closed ? caseView.closedAt().toEpochMilli() : 0);
+            Instant lastModified = closed ? caseView.closedAt() : caseView.appealedAt();
+
+            return new CaseViewPayload(objectMapper.writeValueAsBytes(caseView), eTag, lastModified, closed);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize case view " + caseView.id(), e);
+        }
+    }
+
+    private Optional<UUID> resolveCaseId(String accessCode) {
+        if (!EncryptionHelper.isWellFormed(accessCode)) {
+            malformedCodeCounter.increment();
+            return Optional.empty();
+        }
 
-    public Optional<CaseEntity> retrieveCaseByAccessCode(String accessCode) {
         // Check if code is blacklisted
-        Optional<AccessCodeBlacklistEntity> blacklistEntity = blacklistRepository.findByAccessCode(accessCode);
-        if (blacklistEntity.isPresent()) return Optional.empty();
+        if (revocationService.isRevoked(accessCode)) return Optional.empty();
 
         // Start access code decoding process
         EncryptionHelper.CaseAccessDetails details = EncryptionHelper.decryptCaseAccessCode(accessCode);
         if (details == null) return Optional.empty();
 
         try {
-            UUID caseId = UUID.fromString(details.caseId());
-            return caseRepository.findById(caseId);
+            return Optional.of(UUID.fromString(details.caseId()));
         } catch (Exception ex) {
             return Optional.empty();
         }
     }
+
+    public record CaseViewPayload(byte[] body, String eTag, Instant lastModified, boolean closed) {}
+
+    // Opaque to clients: the position of the last message on the previous page
+    private record TranscriptCursor(Instant timestamp, String messageId) {
+        static final TranscriptCursor START = new TranscriptCursor(Instant.EPOCH, "");
+
+        String encode() {
+            return Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString((timestamp + "/" + messageId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static TranscriptCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split("/", 2);
+                return new TranscriptCursor(Instant.parse(parts[0]), parts[1]);
+            } catch (Exception ex) {
+                throw new InvalidTranscriptCursorException();
+            }
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.sopuro.appeal_system.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
+import com.sopuro.appeal_system.dtos.GameConfigDto;
+import com.sopuro.appeal_system.shared.AppealIdentity;
+import com.sopuro.appeal_system.shared.enums.ServerType;
+import com.sopuro.appeal_system.shared.utils.TokenHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of appealer identities. The crossroads buttons and menus start resolving the identity while
+ * the user is still filling in the appeal modal, so the submission usually finds the Roblox lookups done.
+ */
+@Service
+@Slf4j
+public class AppealIdentityService {
+    private final RoverMappingService roverMappingService;
+    private final OpenCloudClient openCloudClient;
+    private final RobloxProfileService robloxProfileService;
+    private final Cache<IdentityKey, AppealIdentity> identities;
+    private final Counter prefetchHitCounter;
+    private final Counter prefetchMissCounter;
+
+    public AppealIdentityService(
+            RoverMappingService roverMappingService,
+            OpenCloudClient openCloudClient,
+            RobloxProfileService robloxProfileService,
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.identity-prefetch.ttl:5m}") Duration ttl,
+            @Value("${appeal-system.identity-prefetch.max-size:10000}") long maxSize) {
+        this.roverMappingService = roverMappingService;
+        this.openCloudClient = openCloudClient;
+        this.robloxProfileService = robloxProfileService;
+        this.identities = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+
+        this.prefetchHitCounter = Counter.builder("appeal_identity.prefetch")
+                .tag("result", "hit")
+                .description("Appeal submissions that found their Roblox account already resolved by a prefetch")
+                .register(meterRegistry);
+        this.prefetchMissCounter = Counter.builder("appeal_identity.prefetch")
+                .tag("result", "miss")
+                .description("Appeal submissions whose Roblox account was not resolved yet, or whose prefetch failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts resolving the user's identity in the background. Never blocks and never fails; the submission
+     * retries anything that could not be fetched here.
+     */
+    public void prefetch(GameConfigDto gameConfig, String guildId, String discordUserId, boolean inGameAppeal) {
+        final AppealIdentity identity = getOrCreate(gameConfig, guildId, discordUserId);
+
+        Mono.when(
+                        identity.robloxProfile(),
+                        identity.robloxAvatar(),
+                        inGameAppeal ? identity.userRestriction() : Mono.empty())
+                .subscribe(
+                        ignored -> {},
+                        error -> log.debug("Identity prefetch failed for user {}: {}", discordUserId, error.getMessage()));
+    }
+
+    /**
+     * Returns the identity for a submission, prefetched or not. Only a prefetch that has already resolved the Roblox
+     * account counts as a hit; one still in flight or one that failed leaves the submission waiting on lookups.
+     */
+    public AppealIdentity getIdentity(GameConfigDto gameConfig, String guildId, String discordUserId) {
+        final AppealIdentity identity = getOrCreate(gameConfig, guildId, discordUserId);
+        if (identity.isRobloxAccountResolved()) {
+            prefetchHitCounter.increment();
+        } else {
+            prefetchMissCounter.increment();
+        }
+        return identity;
+    }
+
+    private AppealIdentity getOrCreate(GameConfigDto gameConfig, String guildId, String discordUserId) {
+        return identities.get(new IdentityKey(guildId, discordUserId), key -> {
+            final String roverToken =
+                    TokenHelper.retrieveRoverTokenForGame(gameConfig.normalizedName(), ServerType.APPEAL);
+            return new AppealIdentity(
+                    roverMappingService, openCloudClient, robloxProfileService, gameConfig, guildId, discordUserId, roverToken);
+        });
+    }
+
+    private record IdentityKey(String guildId, String discordUserId) {}
+}
@@ -0,0 +1,433 @@
+package com.sopuro.appeal_system.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for appeal channel message logs. Gateway handlers enqueue writes and deletions
+ * and a single writer thread flushes them to Postgres per size/time window: one JDBC batch of upserts, one
+ * of edits and one set-based DELETE. Writes for the same message within a window are collapsed so only
+ * the latest content is written.
+ */
+@Service
+@Slf4j
+public class MessageLogIngestionService {
+    // Edits can arrive out of order, so never let an older edit overwrite a newer one
+    private static final String UPSERT_MESSAGE_LOG_SQL = """
+            INSERT INTO message_logs (id, case_id, author_id, content, creation_timestamp, last_edited_timestamp)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id, creation_timestamp) DO UPDATE
+            SET content = EXCLUDED.content, last_edited_timestamp = EXCLUDED.last_edited_timestamp
+            WHERE message_logs.last_edited_timestamp IS NULL
+               OR EXCLUDED.last_edited_timestamp >= message_logs.last_edited_timestamp""";
+    // Edits are built from the gateway payload alone, so they only touch rows that were logged on create;
+    // edits of bot and ephemeral messages, which are never logged, update nothing
+    private static final String UPDATE_MESSAGE_LOG_SQL = """
+            UPDATE message_logs
+            SET content = ?, last_edited_timestamp = ?
+            WHERE id = ? AND creation_timestamp = ?
+              AND (last_edited_timestamp IS NULL OR last_edited_timestamp <= ?)""";
+    private static final String DELETE_MESSAGE_LOGS_SQL = "DELETE FROM message_logs WHERE id = ANY(?)";
+    // Only bounds retries during shutdown; while running, a batch waits for the database to come back
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
+    private static final Duration FLUSH_RETRY_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_FLUSH_RETRY_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<MessageLogOperation> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedRecordsCounter;
+    private final Counter coalescedRecordsCounter;
+    private final Counter deletedRecordsCounter;
+    private final Thread writerThread;
+    private final Scheduler enqueuer = Schedulers.newSingle("message-log-enqueuer", true);
+
+    private volatile boolean running = true;
+    // Guarded by this
+    private int parked;
+
+    public MessageLogIngestionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.message-logs.ingestion.batch-size:200}") int batchSize,
+            @Value("${appeal-system.message-logs.ingestion.flush-interval:500ms}") Duration flushInterval,
+            @Value("${appeal-system.message-logs.ingestion.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.writerThread = Thread.ofPlatform().name("message-log-writer").unstarted(this::runWriterLoop);
+
+        Gauge.builder("message_logs.ingestion.queue.size", queue, BlockingQueue::size)
+                .description("Message log writes waiting to be flushed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("message_logs.ingestion.flush")
+                .description("Time taken to flush one batch of message logs")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("message_logs.ingestion.batch.size")
+                .description("Number of message logs written per flush")
+                .register(meterRegistry);
+        this.failedRecordsCounter = Counter.builder("message_logs.ingestion.failed")
+                .description("Message logs that could not be written")
+                .register(meterRegistry);
+        this.coalescedRecordsCounter = Counter.builder("message_logs.ingestion.coalesced")
+                .description("Message log writes merged into a later write for the same message")
+                .register(meterRegistry);
+        this.deletedRecordsCounter = Counter.builder("message_logs.ingestion.deleted")
+                .description("Message log IDs submitted for deletion")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread.start();
+        log.info("Message log writer started (batch size: {}, flush interval: {}ms)",
+                batchSize, flushInterval.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(SHUTDOWN_TIMEOUT.toMillis());
+        enqueuer.dispose();
+
+        if (!queue.isEmpty()) {
+            log.error("Message log writer stopped with {} unflushed records", queue.size());
+        } else {
+            log.info("Message log writer stopped, all pending records flushed");
+        }
+    }
+
+    public Mono<Void> enqueue(MessageLogRecord record) {
+        return submit(record);
+    }
+
+    public Mono<Void> enqueueEdit(MessageLogEdit edit) {
+        return submit(edit);
+    }
+
+    public Mono<Void> enqueueDeletion(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) return Mono.empty();
+        return submit(new MessageLogDeletion(Set.copyOf(messageIds)));
+    }
+
+    private Mono<Void> submit(MessageLogOperation operation) {
+        if (!running) {
+            log.warn("Dropping message log operation {} received during shutdown", operation);
+            return Mono.empty();
+        }
+
+        return enqueueInOrder(operation);
+    }
+
+    // Once an operation has to wait for room, later ones queue up behind it even if a slot frees up in between,
+    // so a deletion can never be flushed ahead of the write it follows
+    private synchronized Mono<Void> enqueueInOrder(MessageLogOperation operation) {
+        if (parked == 0 && queue.offer(operation)) return Mono.empty();
+
+        // The queue only fills up when Postgres falls behind, so the operation is held on the single enqueuer
+        // thread until there is room. This keeps the gateway pipeline from racing ahead of the database.
+        log.debug("Message log queue is full, waiting to enqueue {}", operation);
+        final CompletableFuture<Void> enqueued = new CompletableFuture<>();
+        try {
+            enqueuer.schedule(() -> {
+                try {
+                    queue.put(operation);
+                    enqueued.complete(null);
+                } catch (InterruptedException ex) {
+                    enqueued.completeExceptionally(ex);
+                } finally {
+                    unpark();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("Dropping message log operation {} received during shutdown", operation);
+            return Mono.empty();
+        }
+
+        parked++;
+        return Mono.fromFuture(enqueued, true);
+    }
+
+    private synchronized void unpark() {
+        parked--;
+    }
+
+    private void runWriterLoop() {
+        List<MessageLogOperation> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException ignored) {
+                // Woken up for shutdown; flush what was collected and drain the rest of the queue
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<MessageLogOperation> batch) throws InterruptedException {
+        MessageLogOperation first = running
+                ? queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS)
+                : queue.poll();
+        if (first == null) return;
+
+        batch.add(first);
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) return;
+
+            MessageLogOperation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<MessageLogOperation> batch) {
+        Timer.Sample sample = Timer.start();
+        PendingChanges changes = coalesce(batch);
+
+        try {
+            writeWithRetry(changes);
+            batchSizeSummary.record(changes.upserts().size() + changes.edits().size());
+            log.debug("Flushed {} message logs, {} edits and {} deletions ({} coalesced)",
+                    changes.upserts().size(), changes.edits().size(), changes.deletions().size(),
+                    changes.coalesced());
+        } catch (TransientDataAccessException | DataAccessResourceFailureException ex) {
+            // Only reached during shutdown. Writing row by row would fail in exactly the same way
+            failedRecordsCounter.increment(changes.upserts().size() + changes.edits().size());
+            log.error("Database still unavailable at shutdown, dropping {} writes, {} edits and {} deletions: {}",
+                    changes.upserts().size(), changes.edits().size(), changes.deletions().size(), ex.getMessage());
+        } catch (DataAccessException ex) {
+            // The batch was rejected for its data, so isolate the offending rows
+            log.warn("Batch flush of {} writes, {} edits and {} deletions failed, retrying individually: {}",
+                    changes.upserts().size(), changes.edits().size(), changes.deletions().size(), ex.getMessage());
+            changes.upserts().forEach(this::writeSingle);
+            changes.edits().forEach(this::editSingle);
+            deleteSeparately(changes.deletions());
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    // Postgres rejects an upsert batch that touches the same row twice, and repeated edits only need
+    // their latest version written anyway. An edit of a message created in the same window is folded into its
+    // insert, and a deletion cancels any write still pending for that message.
+    private PendingChanges coalesce(List<MessageLogOperation> batch) {
+        Map<String, MessageLogRecord> latestById = new LinkedHashMap<>(batch.size());
+        Map<String, MessageLogEdit> editsById = new LinkedHashMap<>();
+        Set<String> deletions = new LinkedHashSet<>();
+        int coalesced = 0;
+
+        for (MessageLogOperation operation : batch) {
+            switch (operation) {
+                case MessageLogRecord record -> {
+                    if (latestById.containsKey(record.id())) coalesced++;
+                    latestById.merge(record.id(), record, MessageLogIngestionService::latest);
+                }
+                case MessageLogEdit edit -> {
+                    MessageLogRecord pending = latestById.get(edit.id());
+                    if (pending != null) {
+                        coalesced++;
+                        latestById.put(edit.id(), latest(pending, pending.withEdit(edit)));
+                    } else {
+                        if (editsById.containsKey(edit.id())) coalesced++;
+                        editsById.merge(edit.id(), edit, MessageLogIngestionService::latest);
+                    }
+                }
+                case MessageLogDeletion deletion -> {
+                    for (String messageId : deletion.messageIds()) {
+                        if (latestById.remove(messageId) != null) coalesced++;
+                        if (editsById.remove(messageId) != null) coalesced++;
+                        deletions.add(messageId);
+                    }
+                }
+            }
+        }
+
+        coalescedRecordsCounter.increment(coalesced);
+        deletedRecordsCounter.increment(deletions.size());
+        return new PendingChanges(
+                new ArrayList<>(latestById.values()), new ArrayList<>(editsById.values()), deletions, coalesced);
+    }
+
+    private static MessageLogRecord latest(MessageLogRecord current, MessageLogRecord incoming) {
+        if (current.lastEditedTimestamp() == null) return incoming;
+        if (incoming.lastEditedTimestamp() == null) return current;
+        return incoming.lastEditedTimestamp().isBefore(current.lastEditedTimestamp()) ? current : incoming;
+    }
+
+    private static MessageLogEdit latest(MessageLogEdit current, MessageLogEdit incoming) {
+        return incoming.lastEditedTimestamp().isBefore(current.lastEditedTimestamp()) ? current : incoming;
+    }
+
+    // Connection problems keep the batch on the writer thread; the queue then fills up and backpressure reaches
+    // the gateway handlers instead of records being dropped
+    private void writeWithRetry(PendingChanges changes) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!changes.upserts().isEmpty()) {
+                        jdbcTemplate.batchUpdate(
+                                UPSERT_MESSAGE_LOG_SQL, changes.upserts(), changes.upserts().size(), this::bindRecord);
+                    }
+                    if (!changes.edits().isEmpty()) {
+                        jdbcTemplate.batchUpdate(
+                                UPDATE_MESSAGE_LOG_SQL, changes.edits(), changes.edits().size(), this::bindEdit);
+                    }
+                    if (!changes.deletions().isEmpty()) {
+                        jdbcTemplate.update(DELETE_MESSAGE_LOGS_SQL, ps -> bindIds(ps, changes.deletions()));
+                    }
+                });
+                return;
+            } catch (TransientDataAccessException | DataAccessResourceFailureException ex) {
+                if (!running && attempt >= MAX_FLUSH_ATTEMPTS) throw ex;
+
+                log.warn("Database unavailable while flushing message logs (attempt {}), holding {} queued: {}",
+                        attempt, queue.size(), ex.getMessage());
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private void writeSingle(MessageLogRecord record) {
+        try {
+            jdbcTemplate.update(UPSERT_MESSAGE_LOG_SQL, ps -> bindRecord(ps, record));
+        } catch (DataAccessException ex) {
+            failedRecordsCounter.increment();
+            log.error("Failed to persist message log {} for case {}: {}",
+                    record.id(), record.caseId(), ex.getMessage());
+        }
+    }
+
+    private void editSingle(MessageLogEdit edit) {
+        try {
+            jdbcTemplate.update(UPDATE_MESSAGE_LOG_SQL, ps -> bindEdit(ps, edit));
+        } catch (DataAccessException ex) {
+            failedRecordsCounter.increment();
+            log.error("Failed to persist edit of message log {}: {}", edit.id(), ex.getMessage());
+        }
+    }
+
+    private void deleteSeparately(Set<String> messageIds) {
+        if (messageIds.isEmpty()) return;
+
+        try {
+            jdbcTemplate.update(DELETE_MESSAGE_LOGS_SQL, ps -> bindIds(ps, messageIds));
+        } catch (DataAccessException ex) {
+            log.error("Failed to delete {} message logs: {}", messageIds.size(), ex.getMessage());
+        }
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(Math.min(
+                    FLUSH_RETRY_BACKOFF.multipliedBy(attempt).toMillis(), MAX_FLUSH_RETRY_BACKOFF.toMillis()));
+        } catch (InterruptedException ignored) {
+            // Shutdown requested; retry immediately so pending records still get a chance to land
+        }
+    }
+
+    private void bindRecord(PreparedStatement ps, MessageLogRecord record) throws SQLException {
+        ps.setString(1, record.id());
+        ps.setObject(2, record.caseId());
+        ps.setString(3, record.authorId());
+        ps.setString(4, record.content());
+        ps.setObject(5, toUtc(record.creationTimestamp()), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(6, toUtc(record.lastEditedTimestamp()), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    private void bindEdit(PreparedStatement ps, MessageLogEdit edit) throws SQLException {
+        ps.setString(1, edit.content());
+        ps.setObject(2, toUtc(edit.lastEditedTimestamp()), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(3, edit.id());
+        ps.setObject(4, toUtc(edit.creationTimestamp()), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(5, toUtc(edit.lastEditedTimestamp()), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    private void bindIds(PreparedStatement ps, Set<String> messageIds) throws SQLException {
+        ps.setArray(1, ps.getConnection().createArrayOf("varchar", messageIds.toArray()));
+    }
+
+    private OffsetDateTime toUtc(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    public sealed interface MessageLogOperation permits MessageLogRecord, MessageLogEdit, MessageLogDeletion {}
+
+    public record MessageLogRecord(
+            String id,
+            UUID caseId,
+            String authorId,
+            String content,
+            Instant creationTimestamp,
+            Instant lastEditedTimestamp) implements MessageLogOperation {
+        MessageLogRecord withEdit(MessageLogEdit edit) {
+            return new MessageLogRecord(id, caseId, authorId, edit.content(), creationTimestamp,
+                    edit.lastEditedTimestamp());
+        }
+    }
+
+    // The creation timestamp locates the row's partition
+    public record MessageLogEdit(String id, Instant creationTimestamp, String content, Instant lastEditedTimestamp)
+            implements MessageLogOperation {}
+
+    public record MessageLogDeletion(Set<String> messageIds) implements MessageLogOperation {}
+
+    private record PendingChanges(
+            List<MessageLogRecord> upserts, List<MessageLogEdit> edits, Set<String> deletions, int coalesced) {}
+}
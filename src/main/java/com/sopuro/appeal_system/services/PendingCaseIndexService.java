@@ -0,0 +1,93 @@
+package com.sopuro.appeal_system.services;
+
+import com.sopuro.appeal_system.entities.CaseEntity;
+import com.sopuro.appeal_system.repositories.CaseRepository;
+import com.sopuro.appeal_system.repositories.projections.CaseChannelProjection;
+import com.sopuro.appeal_system.shared.enums.AppealVerdict;
+import discord4j.common.util.Snowflake;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of channels that belong to a pending appeal case, so message events can be
+ * matched to their case without a database round trip.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PendingCaseIndexService {
+    private final CaseRepository caseRepository;
+    private final Map<Long, UUID> pendingCasesByChannel = new ConcurrentHashMap<>();
+    // Sequence number of the latest unregistration per channel, so a reload cannot put back a case closed meanwhile
+    private final Map<Long, Long> unregisteredAt = new ConcurrentHashMap<>();
+    private final AtomicLong unregistrations = new AtomicLong();
+
+    @PostConstruct
+    public void warmUp() {
+        pendingCasesByChannel.putAll(loadPendingCases());
+        log.info("Pending case index warmed up with {} open appeal channels", pendingCasesByChannel.size());
+    }
+
+    // Picks up cases opened or closed by other instances of the application
+    @Scheduled(fixedDelay = 5, initialDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void resynchronize() {
+        // Only entries that existed before the reload may be removed, otherwise a case registered
+        // while the query was running would be dropped again
+        Set<Long> previousChannels = new HashSet<>(pendingCasesByChannel.keySet());
+        long reloadStartedAt = unregistrations.get();
+        Map<Long, UUID> pendingCases = loadPendingCases();
+
+        previousChannels.removeAll(pendingCases.keySet());
+        previousChannels.forEach(pendingCasesByChannel::remove);
+        // A case unregistered while the query ran may still be pending in its result. The check runs under the
+        // entry's lock, which unregister also takes, so it cannot interleave with an unregistration
+        pendingCases.forEach((channelId, caseId) -> pendingCasesByChannel.compute(channelId, (ignored, current) ->
+                unregisteredAt.getOrDefault(channelId, Long.MIN_VALUE) <= reloadStartedAt ? caseId : current));
+        // Older unregistrations were already reflected by the database when this reload read it
+        unregisteredAt.values().removeIf(sequence -> sequence <= reloadStartedAt);
+
+        log.debug("Pending case index resynchronized - {} open, {} removed",
+                pendingCasesByChannel.size(), previousChannels.size());
+    }
+
+    public Optional<UUID> findPendingCase(Snowflake channelId) {
+        return Optional.ofNullable(pendingCasesByChannel.get(channelId.asLong()));
+    }
+
+    public void register(CaseEntity caseEntity) {
+        long channelId = Snowflake.of(caseEntity.getChannelId()).asLong();
+        unregisteredAt.remove(channelId);
+        pendingCasesByChannel.put(channelId, caseEntity.getId());
+        log.debug("Registered channel {} for pending case {}", caseEntity.getChannelId(), caseEntity.getId());
+    }
+
+    public void unregister(CaseEntity caseEntity) {
+        long channelId = Snowflake.of(caseEntity.getChannelId()).asLong();
+        pendingCasesByChannel.compute(channelId, (ignored, current) -> {
+            unregisteredAt.put(channelId, unregistrations.incrementAndGet());
+            return null;
+        });
+        log.debug("Unregistered channel {} of case {}", caseEntity.getChannelId(), caseEntity.getId());
+    }
+
+    private Map<Long, UUID> loadPendingCases() {
+        Map<Long, UUID> pendingCases = new HashMap<>();
+        for (CaseChannelProjection pendingCase : caseRepository.findByAppealVerdict(AppealVerdict.PENDING)) {
+            pendingCases.put(Snowflake.of(pendingCase.getChannelId()).asLong(), pendingCase.getId());
+        }
+        return pendingCases;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sopuro.appeal_system.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxAvatarDto;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxProfileDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Cached Roblox profiles and avatars. Concurrent lookups for the same user share one Open Cloud request, and
+ * failed lookups are not cached.
+ */
+@Service
+public class RobloxProfileService {
+    private final OpenCloudClient openCloudClient;
+    private final AsyncCache<String, RobloxProfileDto> profiles;
+    private final AsyncCache<String, RobloxAvatarDto> avatars;
+
+    public RobloxProfileService(
+            OpenCloudClient openCloudClient,
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.roblox-cache.profile-ttl:1h}") Duration profileTtl,
+            @Value("${appeal-system.roblox-cache.avatar-ttl:30m}") Duration avatarTtl,
+            @Value("${appeal-system.roblox-cache.max-size:10000}") long maxSize) {
+        this.openCloudClient = openCloudClient;
+        this.profiles = Caffeine.newBuilder()
+                .expireAfterWrite(profileTtl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+        this.avatars = Caffeine.newBuilder()
+                .expireAfterWrite(avatarTtl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "roblox_profiles");
+        CaffeineCacheMetrics.monitor(meterRegistry, avatars, "roblox_avatars");
+    }
+
+    public Mono<RobloxProfileDto> getProfile(String robloxId) {
+        return Mono.fromFuture(() -> profiles.get(
+                robloxId, (id, executor) -> openCloudClient.getRobloxProfile(id).toFuture()), true);
+    }
+
+    public Mono<RobloxAvatarDto> getAvatar(String robloxId) {
+        return Mono.fromFuture(() -> avatars.get(
+                robloxId, (id, executor) -> openCloudClient.getRobloxAvatar(id).toFuture()), true);
+    }
+}
@@ -0,0 +1,87 @@
+package com.sopuro.appeal_system.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sopuro.appeal_system.clients.rover.RoverClient;
+import com.sopuro.appeal_system.clients.rover.dtos.DiscordToRobloxDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cached Discord to Roblox account mappings from Rover, per appeal guild. Verified users are kept for a long
+ * time; users Rover does not know (404) are remembered briefly, so repeated attempts by an unverified user do not
+ * each spend Rover quota. A remembered 404 is replayed to callers as the same not found error.
+ */
+@Service
+public class RoverMappingService {
+    private static final String LOOKUPS_METRIC = "rover_mappings.lookups";
+
+    private final RoverClient roverClient;
+    private final MeterRegistry meterRegistry;
+    private final AsyncCache<MappingKey, Optional<DiscordToRobloxDto>> mappings;
+
+    public RoverMappingService(
+            RoverClient roverClient,
+            MeterRegistry meterRegistry,
+            @Value("${appeal-system.rover-cache.ttl:12h}") Duration ttl,
+            @Value("${appeal-system.rover-cache.negative-ttl:2m}") Duration negativeTtl,
+            @Value("${appeal-system.rover-cache.max-size:20000}") long maxSize) {
+        this.roverClient = roverClient;
+        this.meterRegistry = meterRegistry;
+        this.mappings = Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((MappingKey key, Optional<DiscordToRobloxDto> mapping) ->
+                        mapping.isPresent() ? ttl : negativeTtl))
+                .maximumSize(maxSize)
+                .buildAsync();
+    }
+
+    public Mono<DiscordToRobloxDto> toRoblox(String guildId, String discordUserId, String roverToken) {
+        final MappingKey key = new MappingKey(guildId, discordUserId);
+
+        return Mono.defer(() -> {
+                    CompletableFuture<Optional<DiscordToRobloxDto>> cached = mappings.getIfPresent(key);
+                    recordLookup(guildId, cached != null ? "hit" : "miss");
+
+                    return Mono.fromFuture(
+                            cached != null ? cached : mappings.get(key, (k, executor) -> fetch(k, roverToken)), true);
+                })
+                .flatMap(mapping -> mapping
+                        .map(Mono::just)
+                        .orElseGet(() -> Mono.error(notVerified(guildId))));
+    }
+
+    private CompletableFuture<Optional<DiscordToRobloxDto>> fetch(MappingKey key, String roverToken) {
+        return roverClient.toRoblox(key.guildId(), key.discordUserId(), roverToken)
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, ignored -> {
+                    recordLookup(key.guildId(), "not_found");
+                    return Mono.just(Optional.empty());
+                })
+                .toFuture();
+    }
+
+    private WebClientResponseException notVerified(String guildId) {
+        return WebClientResponseException.create(
+                HttpStatus.NOT_FOUND.value(),
+                "User is not verified with Rover in guild " + guildId,
+                HttpHeaders.EMPTY,
+                new byte[0],
+                null);
+    }
+
+    private void recordLookup(String guildId, String result) {
+        meterRegistry.counter(LOOKUPS_METRIC, "guild", guildId, "result", result).increment();
+    }
+
+    private record MappingKey(String guildId, String discordUserId) {}
+}
@@ -0,0 +1,88 @@
+package com.sopuro.appeal_system.shared;
+
+import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxAvatarDto;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxProfileDto;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxUserRestrictionDto;
+import com.sopuro.appeal_system.clients.rover.dtos.DiscordToRobloxDto;
+import com.sopuro.appeal_system.dtos.GameConfigDto;
+import com.sopuro.appeal_system.services.RobloxProfileService;
+import com.sopuro.appeal_system.services.RoverMappingService;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Roblox identity of the user behind an appeal submission. Each lookup is made at most once, on first use, and
+ * its result is shared by validation, channel creation and message rendering. Failed lookups are not kept, so a
+ * lookup that failed during a prefetch is simply made again by the submission. Neither is a restriction that is not
+ * active, so a user who is banned right after being turned away can appeal straight away.
+ */
+public class AppealIdentity {
+    private static final Duration KEEP_FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final Mono<DiscordToRobloxDto> robloxAccount;
+    private final Mono<RobloxProfileDto> robloxProfile;
+    private final Mono<RobloxAvatarDto> robloxAvatar;
+    private final Mono<RobloxUserRestrictionDto> userRestriction;
+
+    private volatile boolean robloxAccountResolved;
+
+    public AppealIdentity(
+            RoverMappingService roverMappingService,
+            OpenCloudClient openCloudClient,
+            RobloxProfileService robloxProfileService,
+            GameConfigDto gameConfig,
+            String guildId,
+            String discordUserId,
+            String roverToken) {
+        this.robloxAccount = roverMappingService.toRoblox(guildId, discordUserId, roverToken)
+                .doOnNext(ignored -> robloxAccountResolved = true)
+                .transform(AppealIdentity::cacheValue);
+        this.robloxProfile = robloxId()
+                .flatMap(robloxProfileService::getProfile)
+                .transform(AppealIdentity::cacheValue);
+        this.robloxAvatar = robloxId()
+                .flatMap(robloxProfileService::getAvatar)
+                .transform(AppealIdentity::cacheValue);
+        this.userRestriction = robloxId()
+                .flatMap(robloxId -> openCloudClient.getUserRestriction(gameConfig.universeId(), robloxId))
+                .cache(restriction -> isActive(restriction) ? KEEP_FOREVER : Duration.ZERO,
+                        error -> Duration.ZERO,
+                        () -> Duration.ZERO);
+    }
+
+    /** Whether the Roblox account has already been looked up successfully, as opposed to pending or failed. */
+    public boolean isRobloxAccountResolved() {
+        return robloxAccountResolved;
+    }
+
+    public Mono<DiscordToRobloxDto> robloxAccount() {
+        return robloxAccount;
+    }
+
+    public Mono<String> robloxId() {
+        return robloxAccount.map(account -> String.valueOf(account.robloxId()));
+    }
+
+    public Mono<RobloxProfileDto> robloxProfile() {
+        return robloxProfile;
+    }
+
+    public Mono<RobloxAvatarDto> robloxAvatar() {
+        return robloxAvatar;
+    }
+
+    public Mono<RobloxUserRestrictionDto> userRestriction() {
+        return userRestriction;
+    }
+
+    private static boolean isActive(RobloxUserRestrictionDto restriction) {
+        return restriction.gameJoinRestriction() != null
+                && Boolean.TRUE.equals(restriction.gameJoinRestriction().active());
+    }
+
+    private static <T> Mono<T> cacheValue(Mono<T> lookup) {
+        return lookup.cache(value -> KEEP_FOREVER, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+}
@@ -3,7 +3,9 @@ package com.sopuro.appeal_system.shared;
 import com.sopuro.appeal_system.components.modals.DiscordAppealModal;
 import com.sopuro.appeal_system.components.modals.GameAppealModal;
 import com.sopuro.appeal_system.configs.AppealSystemConfig;
+import com.sopuro.appeal_system.dtos.GameConfigDto;
 import com.sopuro.appeal_system.exceptions.appeal.MissingGuildContextException;
+import com.sopuro.appeal_system.services.AppealIdentityService;
 import com.sopuro.appeal_system.shared.enums.AppealPlatform;
 import com.sopuro.appeal_system.shared.enums.PunishmentType;
 import discord4j.core.event.domain.interaction.ModalSubmitInteractionEvent;
@@ -18,16 +20,18 @@ import java.time.Instant;
 public class AppealSubmissionContextFactory {
 
     private final AppealSystemConfig appealSystemConfig;
+    private final AppealIdentityService appealIdentityService;
 
     public AppealSubmissionContext createContext(ModalSubmitInteractionEvent event, Instant submittedAt) {
         final User user = event.getInteraction().getUser();
         final String customId = event.getCustomId();
         final String guildId = extractGuildId(event);
         final AppealPlatform platform = determinePlatform(customId);
+        final GameConfigDto gameConfig = appealSystemConfig.getGameConfigByServerId(guildId);
 
         return switch (platform) {
-            case DISCORD -> createDiscordContext(event, user, guildId, platform, submittedAt);
-            case GAME -> createGameContext(event, user, guildId, platform, submittedAt);
+            case DISCORD -> createDiscordContext(event, user, guildId, gameConfig, platform, submittedAt);
+            case GAME -> createGameContext(event, user, guildId, gameConfig, platform, submittedAt);
         };
     }
 
@@ -35,6 +39,7 @@ public class AppealSubmissionContextFactory {
             ModalSubmitInteractionEvent event,
             User user,
             String guildId,
+            GameConfigDto gameConfig,
             AppealPlatform platform,
             Instant submittedAt) {
 
@@ -47,15 +52,18 @@ public class AppealSubmissionContextFactory {
                 user.getId().asString(),
                 user.getUsername(),
                 null, // No video link for Discord appeals
-                appealSystemConfig.getGameConfigByServerId(guildId).normalizedName(),
+                gameConfig.normalizedName(),
                 punishmentType,
-                submittedAt);
+                submittedAt,
+                gameConfig,
+                appealIdentityService.getIdentity(gameConfig, guildId, user.getId().asString()));
     }
 
     private AppealSubmissionContext createGameContext(
             ModalSubmitInteractionEvent event,
             User user,
             String guildId,
+            GameConfigDto gameConfig,
             AppealPlatform platform,
             Instant submittedAt) {
 
@@ -67,9 +75,11 @@ public class AppealSubmissionContextFactory {
                 user.getId().asString(),
                 user.getUsername(),
                 videoLink,
-                appealSystemConfig.getGameConfigByServerId(guildId).normalizedName(),
+                gameConfig.normalizedName(),
                 PunishmentType.BAN, // Game appeals are always for bans
-                submittedAt);
+                submittedAt,
+                gameConfig,
+                appealIdentityService.getIdentity(gameConfig, guildId, user.getId().asString()));
     }
 
     private String extractGuildId(ModalSubmitInteractionEvent event) {
@@ -96,5 +106,7 @@ public class AppealSubmissionContextFactory {
             String videoLink,
             String normalizedGameName,
             PunishmentType punishmentType,
-            Instant submittedAt) {}
+            Instant submittedAt,
+            GameConfigDto gameConfig,
+            AppealIdentity identity) {}
 }
\ No newline at end of file
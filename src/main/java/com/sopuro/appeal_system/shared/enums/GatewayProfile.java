@@ -0,0 +1,8 @@
+package com.sopuro.appeal_system.shared.enums;
+
+public enum GatewayProfile {
+    // Only the intents and cached entities the listeners actually read
+    MINIMAL,
+    // Every intent with Discord4J's default unbounded store
+    FULL
+}
@@ -51,6 +51,8 @@ public class ConfigurationIntegrityChecker {
         if (secretKey == null || secretKey.isBlank() || salt == null || salt.isBlank()) {
             throw new RuntimeException("Missing AES configuration details (secretKey and salt)");
         }
+
+        EncryptionHelper.initialize();
     }
 
     private void openCloudCheck() {
@@ -3,43 +3,64 @@ package com.sopuro.appeal_system.shared.utils;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.crypto.Cipher;
-import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
-import java.security.spec.KeySpec;
 import java.time.Instant;
 import java.util.Base64;
-
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Access codes are {@code v1.<key id>.<base64url(iv | ciphertext | tag)>} tokens sealed with AES-GCM. The key id
+ * lets the current key be rotated while codes issued under retired keys keep working; codes issued before the
+ * versioned format are unprefixed AES-CBC and are still accepted.
+ */
 @Slf4j
 public class EncryptionHelper {
-    private static final String SECRET_KEY = System.getenv("AES_SECRET_KEY");
-    private static final String SALT = System.getenv("AES_SALT");
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = ".";
     private static final Integer ITERATION_COUNT = 65536;
     private static final Integer KEY_LENGTH = 256;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final int CBC_IV_LENGTH = 16;
+    private static final int CBC_BLOCK_SIZE = 16;
+    private static final int MAX_ACCESS_CODE_LENGTH = 255;
+    private static final int MAX_KEY_ID_LENGTH = 32;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    // Derives every key once; PBKDF2 is far too slow to run per access code
+    public static void initialize() {
+        KeyRing keyRing = KeyRingHolder.INSTANCE;
+        log.info("Access code key ring loaded with {} key(s), current key '{}'",
+                keyRing.keys().size(), keyRing.currentKeyId());
+    }
 
     public static String generateCaseAccessCode(String caseId, String requesterId) {
+        return generateCaseAccessCode(KeyRingHolder.INSTANCE, caseId, requesterId);
+    }
+
+    static String generateCaseAccessCode(KeyRing keyRing, String caseId, String requesterId) {
         if (caseId == null || caseId.isBlank() || requesterId == null || requesterId.isBlank())
             throw new IllegalArgumentException("Case ID and Requester ID must not be null or blank");
 
         String plainText = String.format("%s/%s/%s", caseId, requesterId, Instant.now());
 
         try {
-            SecureRandom secureRandom = new SecureRandom();
-            byte[] iv = new byte[16];
-            secureRandom.nextBytes(iv);
-            IvParameterSpec ivspec = new IvParameterSpec(iv);
+            String header = VERSION + SEPARATOR + keyRing.currentKeyId();
 
-            SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-            KeySpec spec = new PBEKeySpec(SECRET_KEY.toCharArray(), SALT.getBytes(), ITERATION_COUNT, KEY_LENGTH);
-            SecretKey tmp = factory.generateSecret(spec);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(tmp.getEncoded(), "AES");
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            SECURE_RANDOM.nextBytes(iv);
 
-            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, ivspec);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyRing.currentKey(), new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            cipher.updateAAD(header.getBytes(StandardCharsets.UTF_8));
 
             byte[] cipherText = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
             byte[] encryptedData = new byte[iv.length + cipherText.length];
@@ -47,45 +68,173 @@ public class EncryptionHelper {
             System.arraycopy(cipherText, 0, encryptedData, iv.length, cipherText.length);
 
             // Use URL-safe Base64 encoding without padding
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(encryptedData);
+            return header + SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(encryptedData);
         } catch (Exception ex) {
             log.error("An error has occurred while trying encrypt case access code", ex);
             return null;
         }
     }
 
+    /**
+     * Cheap structural check that lets obviously invalid input be rejected before any cryptography runs.
+     * A well formed code can still fail to decrypt.
+     */
+    public static boolean isWellFormed(String accessCode) {
+        if (accessCode == null || accessCode.isEmpty() || accessCode.length() > MAX_ACCESS_CODE_LENGTH) return false;
+
+        if (!accessCode.contains(SEPARATOR)) {
+            int decodedLength = decodedLength(accessCode);
+            return decodedLength > CBC_IV_LENGTH && decodedLength % CBC_BLOCK_SIZE == 0;
+        }
+
+        String[] parts = accessCode.split("\\.", -1);
+        return parts.length == 3
+                && VERSION.equals(parts[0])
+                && parts[1].length() <= MAX_KEY_ID_LENGTH
+                && isBase64Url(parts[1])
+                && decodedLength(parts[2]) > GCM_IV_LENGTH + GCM_TAG_LENGTH / 8;
+    }
+
     public static CaseAccessDetails decryptCaseAccessCode(String accessCode) {
+        return decryptCaseAccessCode(KeyRingHolder.INSTANCE, accessCode);
+    }
+
+    static CaseAccessDetails decryptCaseAccessCode(KeyRing keyRing, String accessCode) {
         if (accessCode == null || accessCode.isBlank())
             throw new IllegalArgumentException("Access Code must not be null or blank.");
 
         try {
-            // Use URL-safe Base64 decoder
-            byte[] encryptedData = Base64.getUrlDecoder().decode(accessCode);
-            byte[] iv = new byte[16];
-            System.arraycopy(encryptedData, 0, iv, 0, iv.length);
-            IvParameterSpec ivspec = new IvParameterSpec(iv);
+            String decryptedStr = accessCode.contains(SEPARATOR)
+                    ? decryptVersioned(keyRing, accessCode)
+                    : decryptLegacy(keyRing, accessCode);
+            if (decryptedStr == null) return null;
 
-            SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-            KeySpec spec = new PBEKeySpec(SECRET_KEY.toCharArray(), SALT.getBytes(), ITERATION_COUNT, KEY_LENGTH);
-            SecretKey tmp = factory.generateSecret(spec);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(tmp.getEncoded(), "AES");
+            return parseDetails(decryptedStr);
+        } catch (Exception ex) {
+            // Invalid access code, ignore
+            return null;
+        }
+    }
 
-            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, ivspec);
+    private static String decryptVersioned(KeyRing keyRing, String accessCode) throws Exception {
+        String[] parts = accessCode.split("\\.", 3);
+        if (parts.length != 3 || !VERSION.equals(parts[0])) return null;
 
-            byte[] cipherText = new byte[encryptedData.length - 16];
-            System.arraycopy(encryptedData, 16, cipherText, 0, cipherText.length);
+        SecretKeySpec key = keyRing.keys().get(parts[1]);
+        if (key == null) return null;
 
-            byte[] decryptedText = cipher.doFinal(cipherText);
-            String decryptedStr = new String(decryptedText, StandardCharsets.UTF_8);
+        byte[] encryptedData = Base64.getUrlDecoder().decode(parts[2]);
+        if (encryptedData.length <= GCM_IV_LENGTH) return null;
 
-            String[] strComponents = decryptedStr.split("/");
-            return new CaseAccessDetails(strComponents[0], strComponents[1], Instant.parse(strComponents[2]));
-        } catch (Exception ex) {
-            // Invalid access code, ignore
-            return null;
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(
+                Cipher.DECRYPT_MODE,
+                key,
+                new GCMParameterSpec(GCM_TAG_LENGTH, encryptedData, 0, GCM_IV_LENGTH));
+        cipher.updateAAD((parts[0] + SEPARATOR + parts[1]).getBytes(StandardCharsets.UTF_8));
+
+        byte[] decryptedText = cipher.doFinal(encryptedData, GCM_IV_LENGTH, encryptedData.length - GCM_IV_LENGTH);
+        return new String(decryptedText, StandardCharsets.UTF_8);
+    }
+
+    // Unversioned codes carry no key id, so every key is tried; CBC has no tag, which is why the result is parsed
+    private static String decryptLegacy(KeyRing keyRing, String accessCode) {
+        byte[] encryptedData = Base64.getUrlDecoder().decode(accessCode);
+        if (encryptedData.length <= CBC_IV_LENGTH) return null;
+
+        for (SecretKeySpec key : keyRing.keys().values()) {
+            try {
+                Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+                cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(encryptedData, 0, CBC_IV_LENGTH));
+
+                byte[] decryptedText =
+                        cipher.doFinal(encryptedData, CBC_IV_LENGTH, encryptedData.length - CBC_IV_LENGTH);
+                String decryptedStr = new String(decryptedText, StandardCharsets.UTF_8);
+                parseDetails(decryptedStr);
+                return decryptedStr;
+            } catch (Exception ignored) {
+                // Wrong key, try the next one
+            }
+        }
+
+        return null;
+    }
+
+    // Decoded size of unpadded Base64url, or -1 when the input cannot be such an encoding
+    private static int decodedLength(String encoded) {
+        if (!isBase64Url(encoded) || encoded.length() % 4 == 1) return -1;
+        return encoded.length() * 3 / 4;
+    }
+
+    private static boolean isBase64Url(String value) {
+        if (value.isEmpty()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!valid) return false;
         }
+        return true;
+    }
+
+    private static CaseAccessDetails parseDetails(String decryptedStr) {
+        String[] strComponents = decryptedStr.split("/");
+        return new CaseAccessDetails(strComponents[0], strComponents[1], Instant.parse(strComponents[2]));
     }
 
     public record CaseAccessDetails(String caseId, String createdBy, Instant creationTimestamp) {}
-}
\ No newline at end of file
+
+    record KeyRing(String currentKeyId, Map<String, SecretKeySpec> keys) {
+        SecretKeySpec currentKey() {
+            return keys.get(currentKeyId);
+        }
+
+        /**
+         * The current key comes from {@code AES_SECRET_KEY}/{@code AES_SALT} under the id {@code AES_KEY_ID}.
+         * Keys that are being rotated out are listed in {@code AES_RETIRED_KEYS} as comma separated
+         * {@code id:secret:salt} entries and are only used for decryption.
+         */
+        static KeyRing fromEnvironment(Map<String, String> environment) {
+            String currentKeyId = environment.getOrDefault("AES_KEY_ID", "k1");
+            Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+            keys.put(validateKeyId(currentKeyId),
+                    deriveKey(environment.get("AES_SECRET_KEY"), environment.get("AES_SALT")));
+
+            String retiredKeys = environment.get("AES_RETIRED_KEYS");
+            if (retiredKeys != null && !retiredKeys.isBlank()) {
+                for (String entry : retiredKeys.split(",")) {
+                    String[] parts = entry.trim().split(":", 3);
+                    if (parts.length != 3)
+                        throw new IllegalStateException("AES_RETIRED_KEYS entries must be formatted as id:secret:salt");
+                    if (keys.putIfAbsent(validateKeyId(parts[0]), deriveKey(parts[1], parts[2])) != null)
+                        throw new IllegalStateException("Duplicate access code key id: " + parts[0]);
+                }
+            }
+
+            return new KeyRing(currentKeyId, Collections.unmodifiableMap(keys));
+        }
+
+        private static String validateKeyId(String keyId) {
+            if (!keyId.matches("[A-Za-z0-9_-]+"))
+                throw new IllegalStateException("Access code key ids may only contain letters, digits, '_' and '-'");
+            return keyId;
+        }
+
+        private static SecretKeySpec deriveKey(String secret, String salt) {
+            if (secret == null || secret.isBlank() || salt == null || salt.isBlank())
+                throw new IllegalStateException("Missing AES configuration details (secretKey and salt)");
+
+            try {
+                SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+                PBEKeySpec spec = new PBEKeySpec(secret.toCharArray(), salt.getBytes(), ITERATION_COUNT, KEY_LENGTH);
+                return new SecretKeySpec(factory.generateSecret(spec).getEncoded(), "AES");
+            } catch (Exception ex) {
+                throw new IllegalStateException("Failed to derive access code key", ex);
+            }
+        }
+    }
+
+    private static final class KeyRingHolder {
+        private static final KeyRing INSTANCE = KeyRing.fromEnvironment(System.getenv());
+    }
+}
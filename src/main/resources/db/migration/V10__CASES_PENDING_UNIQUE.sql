@@ -0,0 +1,23 @@
+-- Duplicates created before the index existed would make it fail to build; the newest pending case of each
+-- group is kept and the others are rejected as duplicates, which lets the cleanup job remove their channels
+WITH duplicates AS (
+    SELECT id,
+           ROW_NUMBER() OVER (
+               PARTITION BY game, appealer_discord_id, punishment_type, appeal_platform
+               ORDER BY appealed_at DESC, id DESC) AS position
+    FROM cases
+    WHERE appeal_verdict = 'PENDING'
+)
+UPDATE cases
+SET appeal_verdict = 'REJECTED',
+    verdict_reason = 'Closed automatically as a duplicate of a newer pending appeal',
+    verdict_by     = 'system',
+    closed_at      = now()
+FROM duplicates
+WHERE cases.id = duplicates.id
+  AND duplicates.position > 1;
+
+-- At most one pending appeal per game, user, punishment type and platform, across every application instance
+CREATE UNIQUE INDEX uq_cases_pending_appeal
+    ON cases (game, appealer_discord_id, punishment_type, appeal_platform)
+    WHERE appeal_verdict = 'PENDING';
@@ -0,0 +1,14 @@
+-- Replicas keep an in-memory filter of revoked access codes and are told about new revocations here
+CREATE FUNCTION notify_access_code_revoked() RETURNS trigger AS
+$$
+BEGIN
+    PERFORM pg_notify('access_code_revoked', NEW.access_code);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_access_code_blacklist_notify
+    AFTER INSERT
+    ON access_code_blacklist_entity
+    FOR EACH ROW
+EXECUTE FUNCTION notify_access_code_revoked();
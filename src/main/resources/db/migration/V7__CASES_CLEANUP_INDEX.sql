@@ -0,0 +1,3 @@
+CREATE INDEX idx_cases_cleanup_candidates
+    ON cases (closed_at, id)
+    WHERE cleaned_up_at IS NULL AND closed_at IS NOT NULL;
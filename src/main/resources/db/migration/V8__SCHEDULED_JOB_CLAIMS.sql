@@ -0,0 +1,10 @@
+CREATE TABLE scheduled_job_claims
+(
+    job_name      VARCHAR(64)              NOT NULL,
+    item_key      VARCHAR(255)             NOT NULL,
+    claimed_by    VARCHAR(255)             NOT NULL,
+    claimed_until TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_scheduled_job_claims PRIMARY KEY (job_name, item_key)
+);
+
+CREATE INDEX idx_scheduled_job_claims_claimed_until ON scheduled_job_claims (claimed_until);
@@ -0,0 +1,49 @@
+ALTER TABLE message_logs
+    RENAME TO message_logs_legacy;
+
+ALTER TABLE message_logs_legacy
+    RENAME CONSTRAINT pk_message_logs TO pk_message_logs_legacy;
+
+ALTER TABLE message_logs_legacy
+    DROP CONSTRAINT fk_message_logs_on_case;
+
+-- The partition key has to be part of the primary key; a message's creation timestamp never changes
+CREATE TABLE message_logs
+(
+    id                    VARCHAR(255)                NOT NULL,
+    case_id               UUID                        NOT NULL,
+    author_id             VARCHAR(255)                NOT NULL,
+    content               TEXT                        NOT NULL,
+    creation_timestamp    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    last_edited_timestamp TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_message_logs PRIMARY KEY (id, creation_timestamp),
+    CONSTRAINT fk_message_logs_on_case FOREIGN KEY (case_id) REFERENCES cases (id)
+) PARTITION BY RANGE (creation_timestamp);
+
+CREATE INDEX idx_message_logs_case_id_creation_timestamp ON message_logs (case_id, creation_timestamp);
+
+-- Catches rows outside the monthly partitions if partition maintenance ever falls behind
+CREATE TABLE message_logs_default PARTITION OF message_logs DEFAULT;
+
+DO
+$$
+    DECLARE
+        month_start TIMESTAMP := date_trunc('month', COALESCE(
+                (SELECT min(creation_timestamp) FROM message_logs_legacy), now()::TIMESTAMP));
+        last_month  TIMESTAMP := date_trunc('month', now()::TIMESTAMP) + INTERVAL '2 months';
+    BEGIN
+        WHILE month_start <= last_month
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF message_logs FOR VALUES FROM (%L) TO (%L)',
+                               'message_logs_' || to_char(month_start, '"y"YYYY"m"MM'),
+                               month_start, month_start + INTERVAL '1 month');
+                month_start := month_start + INTERVAL '1 month';
+            END LOOP;
+    END
+$$;
+
+INSERT INTO message_logs (id, case_id, author_id, content, creation_timestamp, last_edited_timestamp)
+SELECT id, case_id, author_id, content, creation_timestamp, last_edited_timestamp
+FROM message_logs_legacy;
+
+DROP TABLE message_logs_legacy;
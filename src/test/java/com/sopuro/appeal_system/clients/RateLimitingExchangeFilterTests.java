@@ -0,0 +1,160 @@
+package com.sopuro.appeal_system.clients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Drives the filter through a real WebClient against a stub server that answers with rate limit responses. */
+class RateLimitingExchangeFilterTests {
+    private static final String UPSTREAM = "stub";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void tooManyRequestsIsRetriedAfterRetryAfter() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "0.5"));
+        server.enqueue(new MockResponse().setBody("ok"));
+        WebClient webClient = webClient(600, 10, 3);
+
+        long started = System.nanoTime();
+        String body = webClient.get().uri("/resource").retrieve().bodyToMono(String.class).block(TIMEOUT);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(450));
+        assertThat(throttled("too_many_requests")).isEqualTo(1);
+
+        // The retry carries the same key, so it went through the same bucket
+        server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(server.takeRequest(1, TimeUnit.SECONDS).getHeader(HttpHeaders.AUTHORIZATION))
+                .isEqualTo("token-a");
+    }
+
+    @Test
+    void tooManyRequestsIsReturnedOnceRetriesRunOut() {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "0.1"));
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "0.1"));
+        WebClient webClient = webClient(600, 10, 1);
+
+        Integer status = webClient.get()
+                .uri("/resource")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .block(TIMEOUT);
+
+        assertThat(status).isEqualTo(429);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(throttled("too_many_requests")).isEqualTo(2);
+    }
+
+    @Test
+    void exhaustedQuotaPausesTheBucketUntilReset() {
+        server.enqueue(new MockResponse()
+                .setBody("first")
+                .setHeader("x-ratelimit-remaining", "0")
+                .setHeader("x-ratelimit-reset", "0.5"));
+        server.enqueue(new MockResponse().setBody("second"));
+        WebClient webClient = webClient(600, 10, 3);
+
+        assertThat(get(webClient)).isEqualTo("first");
+
+        long started = System.nanoTime();
+        assertThat(get(webClient)).isEqualTo("second");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        // The bucket still had tokens, so only the reported reset could have held the request back
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+        assertThat(throttled("quota_exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void queueWaitIsRecordedPerRequest() {
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+        // One request per second with no burst, so the second request has to queue for about a second
+        WebClient webClient = webClient(60, 1, 3);
+
+        get(webClient);
+        get(webClient);
+
+        Timer waitTimer = meterRegistry.get("http_client.rate_limit.wait").tag("upstream", UPSTREAM).timer();
+        assertThat(waitTimer.count()).isEqualTo(2);
+        assertThat(waitTimer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(900);
+        assertThat(meterRegistry.find("http_client.rate_limit.throttled").counters()).isEmpty();
+    }
+
+    @Test
+    void bucketsAreKeptPerToken() {
+        server.enqueue(new MockResponse().setBody("a"));
+        server.enqueue(new MockResponse().setBody("b"));
+        RateLimitingExchangeFilter filter =
+                new RateLimitingExchangeFilter(UPSTREAM, HttpHeaders.AUTHORIZATION, 60, 1, 3, meterRegistry);
+        WebClient webClient = WebClient.builder().baseUrl(server.url("/").toString()).filter(filter).build();
+
+        long started = System.nanoTime();
+        requestWithToken(webClient, "token-a");
+        requestWithToken(webClient, "token-b");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        // A second token has its own full bucket, so it does not wait behind the first
+        assertThat(elapsed).isLessThan(Duration.ofMillis(900));
+    }
+
+    private WebClient webClient(int requestsPerMinute, int burst, int maxRetries) {
+        return WebClient.builder()
+                .baseUrl(server.url("/").toString())
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "token-a")
+                .filter(new RateLimitingExchangeFilter(
+                        UPSTREAM, HttpHeaders.AUTHORIZATION, requestsPerMinute, burst, maxRetries, meterRegistry))
+                .build();
+    }
+
+    private static String get(WebClient webClient) {
+        return webClient.get().uri("/resource").retrieve().bodyToMono(String.class).block(TIMEOUT);
+    }
+
+    private static void requestWithToken(WebClient webClient, String token) {
+        webClient.get()
+                .uri("/resource")
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .retrieve()
+                .bodyToMono(String.class)
+                .onErrorResume(ignored -> Mono.empty())
+                .block(TIMEOUT);
+    }
+
+    private double throttled(String reason) {
+        Counter counter = meterRegistry.find("http_client.rate_limit.throttled")
+                .tags("upstream", UPSTREAM, "reason", reason)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
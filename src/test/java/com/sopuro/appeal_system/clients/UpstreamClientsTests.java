@@ -0,0 +1,113 @@
+package com.sopuro.appeal_system.clients;
+
+import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxProfileDto;
+import com.sopuro.appeal_system.clients.rover.RoverClient;
+import com.sopuro.appeal_system.configs.HttpClientConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Builds the Rover and Open Cloud clients the way the application does, against a stub server, to check that
+ * upstream errors reach callers as the exception types they map.
+ */
+class UpstreamClientsTests {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private MockWebServer server;
+    private RoverClient roverClient;
+    private OpenCloudClient openCloudClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HttpClientConfig config = new HttpClientConfig();
+        CircuitBreakerRegistry circuitBreakers = config.upstreamCircuitBreakers(
+                meterRegistry, 50, 80, Duration.ofSeconds(3), Duration.ofSeconds(30));
+        BulkheadRegistry bulkheads = config.upstreamBulkheads(meterRegistry, 20);
+        String baseUrl = server.url("/").toString();
+
+        roverClient = config.roverClient(
+                WebClient.builder(), meterRegistry, circuitBreakers, bulkheads, baseUrl, TIMEOUT, 600, 10);
+        openCloudClient = config.openCloudClient(
+                WebClient.builder(), meterRegistry, circuitBreakers, bulkheads, "api-key", baseUrl, TIMEOUT, 600, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void roverNotFoundSurfacesAsNotFound() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        assertThatThrownBy(() -> roverClient.toRoblox("1", "2", "rover-token").block(TIMEOUT))
+                .isInstanceOf(WebClientResponseException.NotFound.class);
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getPath()).isEqualTo("/guilds/1/discord-to-roblox/2");
+        assertThat(request.getHeader(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer rover-token");
+    }
+
+    @Test
+    void roverUnbanOfMissingBanSurfacesAsNotFound() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        assertThatThrownBy(() -> roverClient.deleteBan("1", "2", "rover-token").block(TIMEOUT))
+                .isInstanceOf(WebClientResponseException.NotFound.class);
+    }
+
+    @Test
+    void openCloudNotFoundSurfacesAsNotFound() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        assertThatThrownBy(() -> openCloudClient.getUserRestriction("1", "2").block(TIMEOUT))
+                .isInstanceOf(WebClientResponseException.NotFound.class);
+    }
+
+    @Test
+    void openCloudTooManyRequestsSurfacesOnceRetriesRunOut() throws InterruptedException {
+        // The configuration was built without a retry budget, so the first 429 is final
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "0"));
+
+        assertThatThrownBy(() -> openCloudClient.getRobloxProfile("1").block(TIMEOUT))
+                .isInstanceOf(WebClientResponseException.TooManyRequests.class);
+        assertThat(server.takeRequest(1, TimeUnit.SECONDS).getHeader("x-api-key")).isEqualTo("api-key");
+    }
+
+    @Test
+    void openCloudProfileIsDecoded() {
+        server.enqueue(new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody("""
+                        {"id": "1", "name": "builderman", "displayName": "Builderman", "premium": true,
+                         "createTime": "2006-02-27T21:06:40Z"}"""));
+
+        RobloxProfileDto profile = openCloudClient.getRobloxProfile("1").block(TIMEOUT);
+
+        assertThat(profile.name()).isEqualTo("builderman");
+        assertThat(profile.premium()).isTrue();
+    }
+}
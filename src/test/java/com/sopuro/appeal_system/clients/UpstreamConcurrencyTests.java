@@ -0,0 +1,158 @@
+package com.sopuro.appeal_system.clients;
+
+import com.sopuro.appeal_system.clients.opencloud.OpenCloudClient;
+import com.sopuro.appeal_system.clients.opencloud.dtos.RobloxProfileDto;
+import com.sopuro.appeal_system.configs.HttpClientConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires the same burst of concurrent profile lookups at a delayed stub through the reactive Open Cloud client and
+ * through a blocking client wrapped the way callers used to wrap it, one elastic thread per call. Records how many
+ * threads each needs and the p99 latency.
+ */
+@Slf4j
+class UpstreamConcurrencyTests {
+    // Stays within the default connection pool's pending acquire limit on a single core machine
+    private static final int CONCURRENT_LOOKUPS = 40;
+    private static final Duration UPSTREAM_DELAY = Duration.ofMillis(200);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String PROFILE_JSON = """
+            {"id": "1", "name": "builderman", "displayName": "Builderman", "premium": false,
+             "createTime": "2006-02-27T21:06:40Z"}""";
+
+    private MockWebServer server;
+    private ScheduledExecutorService threadSampler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .setBody(PROFILE_JSON)
+                        .setHeadersDelay(UPSTREAM_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        threadSampler = Executors.newSingleThreadScheduledExecutor();
+        // Start the sampler's own thread up front so it is not counted against the first run
+        threadSampler.execute(() -> {});
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        threadSampler.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    void reactiveClientServesConcurrentLookupsWithoutAThreadPerCall() {
+        String baseUrl = server.url("/").toString();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HttpClientConfig config = new HttpClientConfig();
+        OpenCloudClient reactiveClient = config.openCloudClient(
+                WebClient.builder(),
+                meterRegistry,
+                config.upstreamCircuitBreakers(meterRegistry, 50, 100, TIMEOUT, Duration.ofSeconds(30)),
+                config.upstreamBulkheads(meterRegistry, CONCURRENT_LOOKUPS),
+                "api-key",
+                baseUrl,
+                TIMEOUT,
+                60_000,
+                CONCURRENT_LOOKUPS);
+        RunResult reactive = run(() -> reactiveClient.getRobloxProfile("1"));
+
+        RestClient blockingClient = RestClient.create(baseUrl);
+        Scheduler elastic = Schedulers.newBoundedElastic(
+                CONCURRENT_LOOKUPS, Integer.MAX_VALUE, "blocking-upstream-baseline");
+        RunResult blocking;
+        try {
+            blocking = run(() -> Mono.fromCallable(() -> blockingClient.get()
+                            .uri("/cloud/v2/users/{userId}", "1")
+                            .retrieve()
+                            .body(RobloxProfileDto.class))
+                    .subscribeOn(elastic));
+        } finally {
+            elastic.dispose();
+        }
+
+        log.info("{} concurrent lookups, {}ms upstream delay - reactive: {} extra threads, p99 {}ms; "
+                        + "blocking: {} extra threads, p99 {}ms",
+                CONCURRENT_LOOKUPS, UPSTREAM_DELAY.toMillis(),
+                reactive.extraThreads(), reactive.p99().toMillis(),
+                blocking.extraThreads(), blocking.p99().toMillis());
+
+        assertThat(reactive.completed()).isEqualTo(CONCURRENT_LOOKUPS);
+        assertThat(blocking.completed()).isEqualTo(CONCURRENT_LOOKUPS);
+        // Every blocked call holds its own thread; the reactive client adds at most its event loops, however many
+        // calls are in flight
+        assertThat(blocking.extraThreads()).isGreaterThanOrEqualTo(CONCURRENT_LOOKUPS / 2);
+        assertThat(reactive.extraThreads()).isLessThanOrEqualTo(LoopResources.DEFAULT_IO_WORKER_COUNT + 2);
+        assertThat(reactive.p99()).isLessThan(UPSTREAM_DELAY.multipliedBy(10));
+    }
+
+    private RunResult run(Supplier<Mono<RobloxProfileDto>> lookup) {
+        int threadsBefore = clientThreadCount();
+        AtomicInteger peakThreads = new AtomicInteger(threadsBefore);
+        ScheduledFuture<?> sampling = threadSampler.scheduleAtFixedRate(
+                () -> peakThreads.accumulateAndGet(clientThreadCount(), Math::max), 0, 5, TimeUnit.MILLISECONDS);
+
+        List<Duration> latencies;
+        try {
+            latencies = Flux.range(0, CONCURRENT_LOOKUPS)
+                    .flatMap(ignored -> Mono.defer(() -> {
+                                long started = System.nanoTime();
+                                return lookup.get().map(profile -> Duration.ofNanos(System.nanoTime() - started));
+                            }),
+                            CONCURRENT_LOOKUPS)
+                    .collectSortedList()
+                    .block(TIMEOUT);
+        } finally {
+            sampling.cancel(false);
+        }
+
+        Duration p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+        return new RunResult(latencies.size(), peakThreads.get() - threadsBefore, p99);
+    }
+
+    // The stub server runs a thread per connection, which says nothing about the client
+    private static int clientThreadCount() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> !thread.getName().startsWith("MockWebServer"))
+                .count();
+    }
+
+    private record RunResult(int completed, int extraThreads, Duration p99) {}
+}
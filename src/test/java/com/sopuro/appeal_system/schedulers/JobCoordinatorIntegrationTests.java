@@ -0,0 +1,210 @@
+package com.sopuro.appeal_system.schedulers;
+
+import com.sopuro.appeal_system.entities.CaseEntity;
+import com.sopuro.appeal_system.repositories.CaseRepository;
+import com.sopuro.appeal_system.repositories.projections.CaseCleanupCandidate;
+import com.sopuro.appeal_system.shared.enums.AppealPlatform;
+import com.sopuro.appeal_system.shared.enums.AppealVerdict;
+import com.sopuro.appeal_system.shared.enums.PunishmentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two coordinators with different node ids against one Postgres, the way two replicas would share a
+ * database. Requires Docker for the Postgres container.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Claims and advisory locks are only visible across connections once committed
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobCoordinatorIntegrationTests {
+    private static final String JOB = "case-channel-cleanup";
+    private static final Duration LEASE = Duration.ofMinutes(10);
+    private static final int CASE_COUNT = 50;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CaseRepository caseRepository;
+
+    private JobCoordinator nodeA;
+    private JobCoordinator nodeB;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE cases, scheduled_job_claims CASCADE");
+        nodeA = new JobCoordinator(jdbcTemplate, transactionManager, "node-a");
+        nodeB = new JobCoordinator(jdbcTemplate, transactionManager, "node-b");
+
+        Instant closedAt = Instant.now().minus(2, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        caseRepository.saveAll(IntStream.range(0, CASE_COUNT)
+                .mapToObj(i -> closedCase(closedAt.plusSeconds(i)))
+                .toList());
+    }
+
+    @Test
+    void concurrentClaimsSplitCandidatesWithoutOverlap() throws Exception {
+        Set<String> candidates = candidateKeys();
+        assertThat(candidates).hasSize(CASE_COUNT);
+
+        CyclicBarrier start = new CyclicBarrier(2);
+        CompletableFuture<Set<String>> claimedByA = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return nodeA.claim(JOB, candidates, LEASE);
+        });
+        CompletableFuture<Set<String>> claimedByB = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return nodeB.claim(JOB, candidates, LEASE);
+        });
+
+        Set<String> a = claimedByA.get(30, TimeUnit.SECONDS);
+        Set<String> b = claimedByB.get(30, TimeUnit.SECONDS);
+
+        assertThat(a).doesNotContainAnyElementsOf(b);
+        Set<String> union = new HashSet<>(a);
+        union.addAll(b);
+        assertThat(union).isEqualTo(candidates);
+    }
+
+    @Test
+    void leasedItemsStayWithTheirOwnerUntilReleased() {
+        Set<String> candidates = candidateKeys();
+
+        assertThat(nodeA.claim(JOB, candidates, LEASE)).isEqualTo(candidates);
+        assertThat(nodeB.claim(JOB, candidates, LEASE)).isEmpty();
+
+        // Releasing by a node that does not hold the claims must not free them
+        nodeB.release(JOB, candidates);
+        assertThat(nodeB.claim(JOB, candidates, LEASE)).isEmpty();
+
+        nodeA.release(JOB, candidates);
+        assertThat(nodeB.claim(JOB, candidates, LEASE)).isEqualTo(candidates);
+    }
+
+    @Test
+    void expiredLeasesCanBeTakenOver() {
+        Set<String> candidates = candidateKeys();
+
+        assertThat(nodeA.claim(JOB, candidates, Duration.ZERO)).isEqualTo(candidates);
+        assertThat(nodeB.claim(JOB, candidates, LEASE)).isEqualTo(candidates);
+    }
+
+    @Test
+    void cleanedUpCasesAreNoLongerCandidates() {
+        List<CaseCleanupCandidate> firstPage = caseRepository.getCleanupCandidates(
+                Instant.now(), Instant.EPOCH, new UUID(0, 0), Limit.of(10));
+        assertThat(firstPage).hasSize(10);
+
+        caseRepository.markCleanedUp(firstPage.stream().map(CaseCleanupCandidate::id).toArray(UUID[]::new));
+
+        Set<String> remaining = candidateKeys();
+        assertThat(remaining).hasSize(CASE_COUNT - 10);
+        assertThat(remaining).doesNotContainAnyElementsOf(
+                firstPage.stream().map(candidate -> candidate.id().toString()).toList());
+    }
+
+    @Test
+    void runExclusivelyLetsOnlyOneCallerThrough() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> nodeA.runExclusively(JOB, () -> {
+            runs.incrementAndGet();
+            entered.countDown();
+            await(finish);
+        }));
+        assertThat(entered.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // Both the other node and a second caller on the same node are turned away while the lock is held
+        boolean second = nodeB.runExclusively(JOB, runs::incrementAndGet);
+        boolean third = nodeA.runExclusively(JOB, runs::incrementAndGet);
+        finish.countDown();
+
+        assertThat(first.get(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(second).isFalse();
+        assertThat(third).isFalse();
+        assertThat(runs).hasValue(1);
+
+        // The lock is transaction scoped, so it is free again once the first run has committed
+        assertThat(nodeB.runExclusively(JOB, runs::incrementAndGet)).isTrue();
+        assertThat(runs).hasValue(2);
+    }
+
+    private Set<String> candidateKeys() {
+        return caseRepository.getCleanupCandidates(Instant.now(), Instant.EPOCH, new UUID(0, 0), Limit.of(1000))
+                .stream()
+                .map(candidate -> candidate.id().toString())
+                .collect(Collectors.toSet());
+    }
+
+    private static CaseEntity closedCase(Instant closedAt) {
+        return CaseEntity.builder()
+                .game("test-game")
+                .appealerDiscordId(UUID.randomUUID().toString())
+                .appealerRobloxId("1")
+                .appealPlatform(AppealPlatform.DISCORD)
+                .appealVerdict(AppealVerdict.REJECTED)
+                .appealReason("reason")
+                .punishmentType(PunishmentType.BAN)
+                .punishmentReason("reason")
+                .channelId(UUID.randomUUID().toString())
+                .appealedAt(closedAt.minus(1, ChronoUnit.DAYS))
+                .closedAt(closedAt)
+                .build();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
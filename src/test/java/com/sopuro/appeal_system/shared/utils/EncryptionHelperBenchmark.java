@@ -0,0 +1,122 @@
+package com.sopuro.appeal_system.shared.utils;
+
+import com.sopuro.appeal_system.shared.utils.EncryptionHelper.CaseAccessDetails;
+import com.sopuro.appeal_system.shared.utils.EncryptionHelper.KeyRing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access code encryption and decryption before and after keys were derived once and codes moved to AES-GCM.
+ * The baseline methods reproduce the original implementation, which ran PBKDF2 on every call.
+ * Run {@link #main} from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptionHelperBenchmark {
+    private static final String SECRET = "benchmark-secret";
+    private static final String SALT = "benchmark-salt";
+    private static final String CASE_ID = "6f1c2a4e-8b3d-4f5a-9c7e-1d2b3a4c5e6f";
+    private static final String REQUESTER_ID = "123456789012345678";
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private KeyRing keyRing;
+    private String baselineCode;
+    private String versionedCode;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EncryptionHelperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        keyRing = KeyRing.fromEnvironment(Map.of("AES_SECRET_KEY", SECRET, "AES_SALT", SALT));
+        baselineCode = baselineEncrypt(CASE_ID, REQUESTER_ID);
+        versionedCode = EncryptionHelper.generateCaseAccessCode(keyRing, CASE_ID, REQUESTER_ID);
+    }
+
+    @Benchmark
+    public String encryptBaseline() throws Exception {
+        return baselineEncrypt(CASE_ID, REQUESTER_ID);
+    }
+
+    @Benchmark
+    public CaseAccessDetails decryptBaseline() throws Exception {
+        return baselineDecrypt(baselineCode);
+    }
+
+    @Benchmark
+    public String encryptVersioned() {
+        return EncryptionHelper.generateCaseAccessCode(keyRing, CASE_ID, REQUESTER_ID);
+    }
+
+    @Benchmark
+    public CaseAccessDetails decryptVersioned() {
+        return EncryptionHelper.decryptCaseAccessCode(keyRing, versionedCode);
+    }
+
+    // Codes issued before the upgrade, opened by the current implementation
+    @Benchmark
+    public CaseAccessDetails decryptLegacy() {
+        return EncryptionHelper.decryptCaseAccessCode(keyRing, baselineCode);
+    }
+
+    private static String baselineEncrypt(String caseId, String requesterId) throws Exception {
+        String plainText = String.format("%s/%s/%s", caseId, requesterId, Instant.now());
+
+        byte[] iv = new byte[16];
+        SECURE_RANDOM.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, baselineKey(), new IvParameterSpec(iv));
+
+        byte[] cipherText = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+        byte[] encryptedData = new byte[iv.length + cipherText.length];
+        System.arraycopy(iv, 0, encryptedData, 0, iv.length);
+        System.arraycopy(cipherText, 0, encryptedData, iv.length, cipherText.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encryptedData);
+    }
+
+    private static CaseAccessDetails baselineDecrypt(String accessCode) throws Exception {
+        byte[] encryptedData = Base64.getUrlDecoder().decode(accessCode);
+
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.DECRYPT_MODE, baselineKey(), new IvParameterSpec(encryptedData, 0, 16));
+
+        String[] strComponents = new String(cipher.doFinal(encryptedData, 16, encryptedData.length - 16),
+                StandardCharsets.UTF_8).split("/");
+        return new CaseAccessDetails(strComponents[0], strComponents[1], Instant.parse(strComponents[2]));
+    }
+
+    private static SecretKeySpec baselineKey() throws Exception {
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        PBEKeySpec spec = new PBEKeySpec(SECRET.toCharArray(), SALT.getBytes(), 65536, 256);
+        return new SecretKeySpec(factory.generateSecret(spec).getEncoded(), "AES");
+    }
+}
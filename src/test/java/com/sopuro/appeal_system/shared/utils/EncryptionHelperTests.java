@@ -0,0 +1,138 @@
+package com.sopuro.appeal_system.shared.utils;
+
+import com.sopuro.appeal_system.shared.utils.EncryptionHelper.CaseAccessDetails;
+import com.sopuro.appeal_system.shared.utils.EncryptionHelper.KeyRing;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncryptionHelperTests {
+    private static final String CASE_ID = "6f1c2a4e-8b3d-4f5a-9c7e-1d2b3a4c5e6f";
+    private static final String REQUESTER_ID = "123456789012345678";
+    private static final String LEGACY_SECRET = "legacy-test-secret";
+    private static final String LEGACY_SALT = "legacy-test-salt";
+
+    // Produced by the AES-CBC implementation that predates versioned codes, under LEGACY_SECRET and LEGACY_SALT
+    private static final String LEGACY_CODE = "r3KJQpOmcKRIwcI7vSfQejICJ9xkRaIXc9JQ8cOGrL_q13gesPDByLrcBVMaozkESv05RM"
+            + "Xh7jaOcYkdsOrUW4ozWvShSepAZmvUslU1oj3fII5BhTPilzqStpq1GQABV_Vw0am9gn0D0X0RSVxJGg";
+    private static final Instant LEGACY_CREATED_AT = Instant.parse("2026-10-18T09:21:17.800679373Z");
+
+    private static final KeyRing LEGACY_RING = KeyRing.fromEnvironment(Map.of(
+            "AES_SECRET_KEY", LEGACY_SECRET,
+            "AES_SALT", LEGACY_SALT));
+    private static final KeyRing CURRENT_RING = KeyRing.fromEnvironment(Map.of(
+            "AES_KEY_ID", "k1",
+            "AES_SECRET_KEY", "current-test-secret",
+            "AES_SALT", "current-test-salt"));
+    private static final KeyRing ROTATED_RING = KeyRing.fromEnvironment(Map.of(
+            "AES_KEY_ID", "k2",
+            "AES_SECRET_KEY", "next-test-secret",
+            "AES_SALT", "next-test-salt",
+            "AES_RETIRED_KEYS", "k1:current-test-secret:current-test-salt,"
+                    + "legacy:" + LEGACY_SECRET + ":" + LEGACY_SALT));
+
+    @Test
+    void legacyCodeFromTheCbcImplementationStillDecrypts() {
+        assertThat(EncryptionHelper.decryptCaseAccessCode(LEGACY_RING, LEGACY_CODE))
+                .isEqualTo(new CaseAccessDetails(CASE_ID, REQUESTER_ID, LEGACY_CREATED_AT));
+    }
+
+    @Test
+    void legacyCodeStillDecryptsOnceItsKeyIsRetired() {
+        assertThat(EncryptionHelper.decryptCaseAccessCode(ROTATED_RING, LEGACY_CODE))
+                .isEqualTo(new CaseAccessDetails(CASE_ID, REQUESTER_ID, LEGACY_CREATED_AT));
+    }
+
+    @Test
+    void legacyCodeIsRejectedWithoutItsKey() {
+        assertThat(EncryptionHelper.decryptCaseAccessCode(CURRENT_RING, LEGACY_CODE)).isNull();
+    }
+
+    @Test
+    void generatedCodeRoundTrips() {
+        Instant before = Instant.now();
+        String accessCode = EncryptionHelper.generateCaseAccessCode(CURRENT_RING, CASE_ID, REQUESTER_ID);
+
+        assertThat(accessCode).startsWith("v1.k1.");
+        CaseAccessDetails details = EncryptionHelper.decryptCaseAccessCode(CURRENT_RING, accessCode);
+        assertThat(details.caseId()).isEqualTo(CASE_ID);
+        assertThat(details.createdBy()).isEqualTo(REQUESTER_ID);
+        assertThat(details.creationTimestamp()).isBetween(before, Instant.now());
+    }
+
+    @Test
+    void codeSealedUnderARetiredKeyStillOpens() {
+        String accessCode = EncryptionHelper.generateCaseAccessCode(CURRENT_RING, CASE_ID, REQUESTER_ID);
+
+        assertThat(EncryptionHelper.decryptCaseAccessCode(ROTATED_RING, accessCode))
+                .extracting(CaseAccessDetails::caseId)
+                .isEqualTo(CASE_ID);
+        assertThat(EncryptionHelper.generateCaseAccessCode(ROTATED_RING, CASE_ID, REQUESTER_ID)).startsWith("v1.k2.");
+    }
+
+    @Test
+    void codeUnderAnUnknownKeyIdIsRejected() {
+        String accessCode = EncryptionHelper.generateCaseAccessCode(ROTATED_RING, CASE_ID, REQUESTER_ID);
+
+        assertThat(EncryptionHelper.decryptCaseAccessCode(CURRENT_RING, accessCode)).isNull();
+    }
+
+    @Test
+    void rewrittenHeaderIsRejectedEvenWhenTheKeyMatches() {
+        // Both ids derive the same key, so only the header bound into the tag can tell them apart
+        KeyRing aliasedRing = KeyRing.fromEnvironment(Map.of(
+                "AES_KEY_ID", "k1",
+                "AES_SECRET_KEY", "current-test-secret",
+                "AES_SALT", "current-test-salt",
+                "AES_RETIRED_KEYS", "alias:current-test-secret:current-test-salt"));
+        String accessCode = EncryptionHelper.generateCaseAccessCode(aliasedRing, CASE_ID, REQUESTER_ID);
+        String rewritten = accessCode.replaceFirst("^v1\\.k1\\.", "v1.alias.");
+
+        assertThat(EncryptionHelper.decryptCaseAccessCode(aliasedRing, accessCode)).isNotNull();
+        assertThat(EncryptionHelper.decryptCaseAccessCode(aliasedRing, rewritten)).isNull();
+    }
+
+    @Test
+    void tamperedTagIsRejected() {
+        String accessCode = EncryptionHelper.generateCaseAccessCode(CURRENT_RING, CASE_ID, REQUESTER_ID);
+
+        assertThat(EncryptionHelper.decryptCaseAccessCode(CURRENT_RING, flipLastByte(accessCode))).isNull();
+    }
+
+    @Test
+    void wellFormedAcceptsBothLayouts() {
+        String accessCode = EncryptionHelper.generateCaseAccessCode(CURRENT_RING, CASE_ID, REQUESTER_ID);
+
+        assertThat(EncryptionHelper.isWellFormed(accessCode)).isTrue();
+        assertThat(EncryptionHelper.isWellFormed(LEGACY_CODE)).isTrue();
+    }
+
+    @Test
+    void wellFormedRejectsMalformedInput() {
+        String payload = EncryptionHelper.generateCaseAccessCode(CURRENT_RING, CASE_ID, REQUESTER_ID)
+                .substring("v1.k1.".length());
+
+        assertThat(EncryptionHelper.isWellFormed(null)).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("")).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("a".repeat(256))).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("v2.k1." + payload)).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("v1.k1")).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("v1.k!." + payload)).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("v1.k1." + payload + ".extra")).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("v1.k1.AAAA")).isFalse();
+        // One byte short of a whole CBC block
+        assertThat(EncryptionHelper.isWellFormed(LEGACY_CODE.substring(0, LEGACY_CODE.length() - 2))).isFalse();
+        assertThat(EncryptionHelper.isWellFormed("not/base64+")).isFalse();
+    }
+
+    private static String flipLastByte(String accessCode) {
+        int payloadStart = accessCode.lastIndexOf('.') + 1;
+        byte[] payload = Base64.getUrlDecoder().decode(accessCode.substring(payloadStart));
+        payload[payload.length - 1] ^= 1;
+        return accessCode.substring(0, payloadStart) + Base64.getUrlEncoder().withoutPadding().encodeToString(payload);
+    }
+}